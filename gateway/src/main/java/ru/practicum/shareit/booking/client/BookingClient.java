@@ -1,5 +1,8 @@
 package ru.practicum.shareit.booking.client;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,8 +22,13 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
     private static final String BOOKING_ID_PATH = "/{bookingId}";
     private static final String BOOKING_PATH = "/{bookingId}";
-    private static final String ALL_USER_BOOKINGS_PATH = "?state={state}&from={from}&size={size}";
-    private static final String ALL_USER_ITEMS_BOOKINGS_PATH = "/owner/?state={state}";
+    private static final String BATCH_CREATE_PATH = "/batch";
+    private static final String BATCH_STATUS_PATH = "/batch?approved={approved}";
+    private static final String ALL_USER_BOOKINGS_PATH = "?state={state}&size={size}";
+    private static final String ALL_USER_ITEMS_BOOKINGS_PATH = "/owner?state={state}&size={size}";
+    private static final String SUMMARY_PATH = "/summary";
+    private static final String OWNER_SUMMARY_PATH = "/owner/summary";
+    private static final String CURSOR_PARAMS = "&cursorStart={cursorStart}&cursorId={cursorId}";
 
     @Autowired
     public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
@@ -36,23 +44,53 @@ public class BookingClient extends BaseClient {
         return post("", userId, bookingRequestDto);
     }
 
+    public ResponseEntity<Object> createBookings(Long userId, List<BookingRequestDto> bookingRequestDtos) {
+        return post(BATCH_CREATE_PATH, userId, bookingRequestDtos);
+    }
+
     public ResponseEntity<Object> updateBookingStatus(Long ownerId, Long bookingId, Boolean approved) {
         Map<String, Object> uriVariables = Map.of("bookingId",bookingId, "approved", approved);
         return patch(BOOKING_PATH + "?approved={approved}", ownerId, uriVariables, null);
     }
 
+    public ResponseEntity<Object> updateBookingStatuses(Long ownerId, List<Long> bookingIds, Boolean approved) {
+        Map<String, Object> uriVariables = Map.of("approved", approved);
+        return patch(BATCH_STATUS_PATH, ownerId, uriVariables, bookingIds);
+    }
+
     public ResponseEntity<Object> getBookingById(Long userId, Long bookingId) {
         Map<String, Object> uriVariables = Map.of("bookingId", bookingId);
         return get(BOOKING_ID_PATH, userId, uriVariables);
     }
 
-    public ResponseEntity<Object> getAllUserBookings(Long userId, BookingState state, Long from, Long size) {
-        Map<String, Object> uriVariables = Map.of("state", state.name(), "from", from, "size", size);
-        return get(ALL_USER_BOOKINGS_PATH, userId, uriVariables);
+    public ResponseEntity<Object> getAllUserBookings(Long userId, BookingState state,
+                                                     LocalDateTime cursorStart, Long cursorId, Integer size) {
+        return getPage(ALL_USER_BOOKINGS_PATH, userId, state, cursorStart, cursorId, size);
+    }
+
+    public ResponseEntity<Object> getAllUserItemsBookings(Long userId, BookingState state,
+                                                          LocalDateTime cursorStart, Long cursorId, Integer size) {
+        return getPage(ALL_USER_ITEMS_BOOKINGS_PATH, userId, state, cursorStart, cursorId, size);
+    }
+
+    public ResponseEntity<Object> getBookingSummary(Long userId) {
+        return get(SUMMARY_PATH, userId);
+    }
+
+    public ResponseEntity<Object> getBookingSummaryForOwner(Long ownerId) {
+        return get(OWNER_SUMMARY_PATH, ownerId);
     }
 
-    public ResponseEntity<Object> getAllUserItemsBookings(Long userId, BookingState state) {
-        Map<String, Object> uriVariables = Map.of("state", state.name());
-        return get(ALL_USER_ITEMS_BOOKINGS_PATH, userId, uriVariables);
+    private ResponseEntity<Object> getPage(String path, Long userId, BookingState state,
+                                           LocalDateTime cursorStart, Long cursorId, Integer size) {
+        Map<String, Object> uriVariables = new HashMap<>();
+        uriVariables.put("state", state.name());
+        uriVariables.put("size", size);
+        if (cursorStart == null) {
+            return get(path, userId, uriVariables);
+        }
+        uriVariables.put("cursorStart", cursorStart);
+        uriVariables.put("cursorId", cursorId);
+        return get(path + CURSOR_PARAMS, userId, uriVariables);
     }
 }
@@ -1,20 +1,26 @@
 package ru.practicum.shareit.booking.controller;
 
 import jakarta.validation.ValidationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
-import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import ru.practicum.shareit.booking.client.BookingClient;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -24,6 +30,7 @@ import ru.practicum.shareit.booking.dto.BookingState;
 public class BookingController {
 	private final BookingClient bookingClient;
 	private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+	private static final int MAX_BATCH_SIZE = 500;
 
 	@PostMapping
 	public ResponseEntity<Object> addBooking(@RequestHeader(HEADER_USER_ID) Long userId,
@@ -31,6 +38,14 @@ public class BookingController {
 		return bookingClient.createBooking(userId, bookingRequestDto);
 	}
 
+	@PostMapping("/batch")
+	public ResponseEntity<Object> addBookings(@RequestHeader(HEADER_USER_ID) Long userId,
+											  @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+											  List<@NotNull @Valid BookingRequestDto> bookingRequestDtos) {
+		log.info("Пакетное создание {} бронирований", bookingRequestDtos.size());
+		return bookingClient.createBookings(userId, bookingRequestDtos);
+	}
+
 	@PatchMapping("/{bookingId}")
 	public ResponseEntity<Object> updateBookingStatus(@RequestHeader(HEADER_USER_ID) Long ownerId,
 												@PathVariable Long bookingId,
@@ -39,6 +54,25 @@ public class BookingController {
 		return bookingClient.updateBookingStatus(ownerId, bookingId, approved);
 	}
 
+	@PatchMapping("/batch")
+	public ResponseEntity<Object> updateBookingStatuses(@RequestHeader(HEADER_USER_ID) Long ownerId,
+														@RequestParam Boolean approved,
+														@RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+														List<@NotNull @Positive Long> bookingIds) {
+		log.info("Пакетное обновление статуса {} бронирований", bookingIds.size());
+		return bookingClient.updateBookingStatuses(ownerId, bookingIds, approved);
+	}
+
+	@GetMapping("/summary")
+	public ResponseEntity<Object> getBookingSummary(@RequestHeader(HEADER_USER_ID) Long userId) {
+		return bookingClient.getBookingSummary(userId);
+	}
+
+	@GetMapping("/owner/summary")
+	public ResponseEntity<Object> getBookingSummaryForOwner(@RequestHeader(HEADER_USER_ID) Long ownerId) {
+		return bookingClient.getBookingSummaryForOwner(ownerId);
+	}
+
 	@GetMapping("/{bookingId}")
 	public ResponseEntity<Object> getBooking(@RequestHeader(HEADER_USER_ID) Long userId,
 											 @PathVariable Long bookingId) {
@@ -48,22 +82,37 @@ public class BookingController {
 	@GetMapping
 	public ResponseEntity<Object> getAllUserBookings(@RequestHeader(HEADER_USER_ID) Long userId,
 													 @RequestParam(defaultValue = "ALL") String state,
-													 @RequestParam(defaultValue = "0") @PositiveOrZero Long from,
-													 @RequestParam(defaultValue = "10") @Positive Long size) {
+													 @RequestParam(required = false)
+													 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+													 LocalDateTime cursorStart,
+													 @RequestParam(required = false) @Positive Long cursorId,
+													 @RequestParam(defaultValue = "10") @Positive Integer size) {
 		BookingState bookingState = getBookingState(state);
-		return bookingClient.getAllUserBookings(userId, bookingState, from, size);
+		validateCursor(cursorStart, cursorId);
+		return bookingClient.getAllUserBookings(userId, bookingState, cursorStart, cursorId, size);
 	}
 
 	@GetMapping("/owner")
 	public ResponseEntity<Object> getAllUserItemsBookings(@RequestHeader(HEADER_USER_ID) Long userId,
-														  @RequestParam(defaultValue = "ALL") String state) {
+														  @RequestParam(defaultValue = "ALL") String state,
+														  @RequestParam(required = false)
+														  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+														  LocalDateTime cursorStart,
+														  @RequestParam(required = false) @Positive Long cursorId,
+														  @RequestParam(defaultValue = "10") @Positive Integer size) {
 		BookingState bookingState = getBookingState(state);
-
-		return bookingClient.getAllUserItemsBookings(userId, bookingState);
+		validateCursor(cursorStart, cursorId);
+		return bookingClient.getAllUserItemsBookings(userId, bookingState, cursorStart, cursorId, size);
 	}
 
 	private BookingState getBookingState(String state) {
 		return BookingState.from(state)
 				.orElseThrow(() -> new ValidationException("State имеет неизвестное значение."));
 	}
+
+	private void validateCursor(LocalDateTime cursorStart, Long cursorId) {
+		if ((cursorStart == null) != (cursorId == null)) {
+			throw new ValidationException("Курсор должен содержать и cursorStart, и cursorId.");
+		}
+	}
 }
@@ -3,6 +3,8 @@ package ru.practicum.shareit.item.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
@@ -10,14 +12,27 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentSaveDto;
 import ru.practicum.shareit.item.dto.ItemSaveDto;
+import ru.practicum.shareit.item.dto.ItemSearchSort;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String ADD_COMMENT = "/{itemId}/comment";
-    private static final String SEARCH_PATH = "/search?text=";
+    private static final String SEARCH_PATH = "/search?text={text}&sort={sort}&from={from}&size={size}";
+    private static final String EXPORT_PATH = "/search/export?text={text}";
+    private static final String OWNER_ITEMS_PATH = "?from={from}&size={size}";
+    private static final String COMMENTS_PATH = "/{itemId}/comments?size={size}";
+    private static final String SUGGEST_PATH = "/suggest?prefix={prefix}&size={size}";
     private static final String ITEMS_PATH = "/items";
+    private static final String AVAILABILITY_PATH = "/availability?itemIds={itemIds}";
+    private static final String ITEM_AVAILABILITY_PATH = "/{itemId}/availability";
 
     @Autowired
     public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
@@ -35,21 +50,74 @@ public class ItemClient extends BaseClient {
         return post(ADD_COMMENT, userId, uriVariables, commentSaveDto);
     }
 
+    public ResponseEntity<Object> getComments(Long itemId, LocalDateTime createdBefore, Long idBefore, Integer size) {
+        if (createdBefore == null) {
+            return get(COMMENTS_PATH, null, Map.of("itemId", itemId, "size", size));
+        }
+        return get(COMMENTS_PATH + "&createdBefore={createdBefore}&idBefore={idBefore}", null, Map.of(
+                "itemId", itemId,
+                "size", size,
+                "createdBefore", createdBefore,
+                "idBefore", idBefore
+        ));
+    }
+
     public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemSaveDto itemSaveDto) {
         String path = "/" + itemId.toString();
         return patch(path, userId, itemSaveDto);
     }
 
-    public ResponseEntity<Object> getItem(Long itemId) {
+    public ResponseEntity<Object> getItem(Long userId, Long itemId) {
         String path = "/" + itemId.toString();
-        return get(path);
+        return get(path, userId, null);
+    }
+
+    public ResponseEntity<Object> getAllOwnerItems(Long userId, Integer from, Integer size) {
+        return get(OWNER_ITEMS_PATH, userId, Map.of("from", from, "size", size));
+    }
+
+    public ResponseEntity<Object> searchItems(String text, ItemSearchSort sort, Integer from, Integer size) {
+        Map<String, Object> uriVariables = Map.of(
+                "text", text,
+                "sort", sort.name(),
+                "from", from,
+                "size", size
+        );
+        return get(SEARCH_PATH, null, uriVariables);
+    }
+
+    public void exportItems(String text, OutputStream outputStream) {
+        rest.execute(EXPORT_PATH, HttpMethod.GET,
+                request -> request.getHeaders().setAccept(List.of(MediaType.APPLICATION_NDJSON)),
+                response -> response.getBody().transferTo(outputStream),
+                Map.of("text", text));
+    }
+
+    public ResponseEntity<Object> suggestItems(String prefix, Integer size) {
+        return get(SUGGEST_PATH, null, Map.of("prefix", prefix, "size", size));
+    }
+
+    public ResponseEntity<Object> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        String ids = itemIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return getPeriod(AVAILABILITY_PATH, Map.of("itemIds", ids), from, to);
     }
 
-    public ResponseEntity<Object> getAllOwnerItems(Long userId) {
-        return get("", userId);
+    public ResponseEntity<Object> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return getPeriod(ITEM_AVAILABILITY_PATH, Map.of("itemId", itemId), from, to);
     }
 
-    public ResponseEntity<Object> searchItems(String text) {
-        return get(SEARCH_PATH + text);
+    private ResponseEntity<Object> getPeriod(String path, Map<String, Object> uriVariables,
+                                             LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> variables = new HashMap<>(uriVariables);
+        StringJoiner query = new StringJoiner("&", path.contains("?") ? "&" : "?", "").setEmptyValue("");
+        if (from != null) {
+            query.add("from={from}");
+            variables.put("from", from);
+        }
+        if (to != null) {
+            query.add("to={to}");
+            variables.put("to", to);
+        }
+        return get(path + query, null, variables);
     }
 }
@@ -1,17 +1,29 @@
 package ru.practicum.shareit.item.controller;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.ValidationException;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.dto.CommentSaveDto;
 import ru.practicum.shareit.item.dto.ItemSaveDto;
+import ru.practicum.shareit.item.dto.ItemSearchSort;
 import ru.practicum.shareit.validation.ValidationGroups;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -23,6 +35,8 @@ public class ItemController {
 
     private final ItemClient itemClient;
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final int MAX_AVAILABILITY_ITEMS = 100;
+    private static final int MAX_SUGGESTIONS = 50;
 
     @PostMapping
     public ResponseEntity<Object> createItem(@RequestHeader(HEADER_USER_ID) Long userId,
@@ -40,6 +54,18 @@ public class ItemController {
         return itemClient.addComment(userId, itemId, commentSaveDto);
     }
 
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(@PathVariable Long itemId,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+                                              @RequestParam(required = false) @Positive Long idBefore,
+                                              @RequestParam(defaultValue = "10") @Positive Integer size) {
+        if ((createdBefore == null) != (idBefore == null)) {
+            throw new ValidationException("Параметры createdBefore и idBefore задаются вместе.");
+        }
+        return itemClient.getComments(itemId, createdBefore, idBefore, size);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@RequestHeader(HEADER_USER_ID) Long userId,
                                              @PathVariable Long itemId,
@@ -48,18 +74,61 @@ public class ItemController {
         return itemClient.updateItem(userId, itemId, itemSaveDto);
     }
 
+    @GetMapping("/availability")
+    public ResponseEntity<Object> getAvailability(@RequestParam @NotEmpty @Size(max = MAX_AVAILABILITY_ITEMS)
+                                                  List<@NotNull @Positive Long> itemIds,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemClient.getAvailability(itemIds, from, to);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable Long itemId,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false)
+                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemClient.getAvailability(itemId, from, to);
+    }
+
     @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItem(@PathVariable Long itemId) {
-        return itemClient.getItem(itemId);
+    public ResponseEntity<Object> getItem(@RequestHeader(value = HEADER_USER_ID, required = false) Long userId,
+                                          @PathVariable Long itemId) {
+        return itemClient.getItem(userId, itemId);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllOwnerItems(@RequestHeader(HEADER_USER_ID) Long userId) {
-        return itemClient.getAllOwnerItems(userId);
+    public ResponseEntity<Object> getAllOwnerItems(@RequestHeader(HEADER_USER_ID) Long userId,
+                                                   @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                   @RequestParam(defaultValue = "10") @Positive Integer size) {
+        return itemClient.getAllOwnerItems(userId, from, size);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestParam @NotBlank String text) {
-        return text.isBlank() ? ResponseEntity.ok(List.of()) : itemClient.searchItems(text);
+    public ResponseEntity<Object> searchItems(@RequestParam @NotBlank String text,
+                                              @RequestParam(defaultValue = "relevance") String sort,
+                                              @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                              @RequestParam(defaultValue = "10") @Positive Integer size) {
+        ItemSearchSort searchSort = ItemSearchSort.from(sort)
+                .orElseThrow(() -> new ValidationException("Sort имеет неизвестное значение."));
+        return text.isBlank() ? ResponseEntity.ok(List.of()) : itemClient.searchItems(text, searchSort, from, size);
+    }
+
+    @GetMapping(value = "/search/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestParam @NotBlank String text) {
+        log.info("Выгрузка вещей по тексту: {}", text);
+        StreamingResponseBody body = outputStream -> itemClient.exportItems(text, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestItems(@RequestParam @NotBlank String prefix,
+                                               @RequestParam(defaultValue = "10") @Positive @Max(MAX_SUGGESTIONS)
+                                               Integer size) {
+        return itemClient.suggestItems(prefix, size);
     }
 }
@@ -3,6 +3,8 @@ package ru.practicum.shareit.request.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
@@ -10,10 +12,16 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestSaveDto;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class ItemRequestClient extends BaseClient {
-    private static final String GET_ALL_ITEMS = "/all";
+    private static final String GET_ALL_ITEMS = "/all?from={from}&size={size}";
     private static final String REQUESTS = "/requests";
+    private static final String SUBSCRIBE = "/subscribe";
 
     @Autowired
     public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
@@ -30,11 +38,29 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllItemRequests(Long userId) {
-        return get(GET_ALL_ITEMS, userId);
+    public ResponseEntity<Object> getAllItemRequests(Long userId, Integer from, Integer size) {
+        return get(GET_ALL_ITEMS, userId, Map.of("from", from, "size", size));
     }
 
     public ResponseEntity<Object> getItemRequest(Long requestId) {
         return get("/" + requestId);
     }
+
+    public void subscribe(Long userId, OutputStream outputStream) {
+        rest.execute(SUBSCRIBE, HttpMethod.GET,
+                request -> {
+                    request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                    request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+                },
+                response -> {
+                    InputStream events = response.getBody();
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = events.read(buffer)) != -1) {
+                        outputStream.write(buffer, 0, read);
+                        outputStream.flush();
+                    }
+                    return null;
+                });
+    }
 }
@@ -2,12 +2,16 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -24,6 +28,13 @@ public class BookingController {
         return bookingService.createBooking(userId, bookingRequestDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingDto> createBookings(@RequestHeader(HEADER_USER_ID) Long userId,
+                                           @RequestBody List<BookingRequestDto> bookingRequestDtos) {
+        log.info("Пакетное создание {} бронирований", bookingRequestDtos.size());
+        return bookingService.createBookings(userId, bookingRequestDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto updateBookingStatus(@RequestHeader(HEADER_USER_ID) Long ownerId,
                                           @PathVariable Long bookingId,
@@ -32,6 +43,24 @@ public class BookingController {
         return bookingService.updateBookingStatus(ownerId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingStatusResultDto> updateBookingStatuses(@RequestHeader(HEADER_USER_ID) Long ownerId,
+                                                              @RequestParam Boolean approved,
+                                                              @RequestBody List<Long> bookingIds) {
+        log.info("Пакетное обновление статуса {} бронирований", bookingIds.size());
+        return bookingService.updateBookingStatuses(ownerId, bookingIds, approved);
+    }
+
+    @GetMapping("/summary")
+    public BookingSummaryDto getBookingSummary(@RequestHeader(HEADER_USER_ID) Long userId) {
+        return bookingService.getBookingSummary(userId);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getBookingSummaryForOwner(@RequestHeader(HEADER_USER_ID) Long ownerId) {
+        return bookingService.getBookingSummaryForOwner(ownerId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getBookingById(@RequestHeader(HEADER_USER_ID) Long userId,
                                      @PathVariable Long bookingId) {
@@ -41,13 +70,23 @@ public class BookingController {
 
     @GetMapping
     public List<BookingDto> getBookingsByState(@RequestHeader(HEADER_USER_ID) Long userId,
-                                               @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.getBookingsByState(userId, state);
+                                               @RequestParam(defaultValue = "ALL") BookingState state,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime cursorStart,
+                                               @RequestParam(required = false) Long cursorId,
+                                               @RequestParam(defaultValue = "10") Integer size) {
+        return bookingService.getBookingsByState(userId, state, cursorStart, cursorId, size);
     }
 
     @GetMapping("/owner")
     public List<BookingDto> getBookingsForOwner(@RequestHeader(HEADER_USER_ID) Long ownerId,
-                                                @RequestParam(defaultValue = "ALL") BookingState state) {
-        return bookingService.getBookingsForOwner(ownerId, state);
+                                                @RequestParam(defaultValue = "ALL") BookingState state,
+                                                @RequestParam(required = false)
+                                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                LocalDateTime cursorStart,
+                                                @RequestParam(required = false) Long cursorId,
+                                                @RequestParam(defaultValue = "10") Integer size) {
+        return bookingService.getBookingsForOwner(ownerId, state, cursorStart, cursorId, size);
     }
 }
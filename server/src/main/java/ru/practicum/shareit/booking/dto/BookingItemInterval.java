@@ -0,0 +1,5 @@
+package ru.practicum.shareit.booking.dto;
+
+public interface BookingItemInterval extends BookingInterval {
+    Long getItemId();
+}
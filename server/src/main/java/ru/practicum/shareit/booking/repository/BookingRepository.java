@@ -1,70 +1,157 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingItemInterval;
+import ru.practicum.shareit.booking.dto.BookingStateCounts;
+import ru.practicum.shareit.booking.dto.ItemLastNextBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
-
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long bookerId);
-
-    @Query("select b from Booking b " +
-            "where b.booker.id = :bookerId " +
-            "and b.start < :now " +
-            "and b.end > :now " +
-            "order by b.start desc")
-    List<Booking> findCurrentBookingsByBooker(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
-
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime now);
-
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime now);
-
-    List<Booking> findAllByItemIdInAndStatusOrderByStartDesc(List<Long> itemIds, BookingStatus status);
-
-    List<Booking> findAllByItemIdInOrderByStartDesc(List<Long> itemIds);
-
-    @Query("select b from Booking b " +
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdOrderByStartDescIdDesc(Long bookerId, ScrollPosition position, Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(Long bookerId,
+                                                                                     LocalDateTime start,
+                                                                                     LocalDateTime end,
+                                                                                     ScrollPosition position,
+                                                                                     Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdAndEndBeforeOrderByStartDescIdDesc(Long bookerId, LocalDateTime now,
+                                                                        ScrollPosition position, Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdAndStartAfterOrderByStartDescIdDesc(Long bookerId, LocalDateTime now,
+                                                                         ScrollPosition position, Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByBookerIdAndStatusOrderByStartDescIdDesc(Long bookerId, BookingStatus status,
+                                                                     ScrollPosition position, Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdOrderByStartDescIdDesc(Long ownerId, ScrollPosition position, Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDescIdDesc(Long ownerId,
+                                                                                                          LocalDateTime start,
+                                                                                                          LocalDateTime end,
+                                                                                                          ScrollPosition position,
+                                                                                                          Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(Long ownerId, LocalDateTime now,
+                                                                           ScrollPosition position, Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(Long ownerId, LocalDateTime now,
+                                                                            ScrollPosition position, Limit limit);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Window<Booking> findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(Long ownerId, BookingStatus status,
+                                                                        ScrollPosition position, Limit limit);
+
+    @Query("select i.id as itemId, " +
+            "(select b.start from Booking b where b.item.id = i.id and b.status = :status and b.end < :now " +
+            "order by b.end desc, b.id desc limit 1) as lastBookingStart, " +
+            "(select b.start from Booking b where b.item.id = i.id and b.status = :status and b.start > :now " +
+            "order by b.start, b.id limit 1) as nextBookingStart " +
+            "from Item i where i.id in :itemIds")
+    List<ItemLastNextBooking> findLastNextByItemIdInAndStatus(@Param("itemIds") Collection<Long> itemIds,
+                                                              @Param("status") BookingStatus status,
+                                                              @Param("now") LocalDateTime now);
+
+    @Query("select u.name from Booking b join b.booker u " +
+            "where b.item.id = :itemId and b.booker.id = :bookerId and b.status = :status and b.end < :end " +
+            "order by b.end desc limit 1")
+    Optional<String> findBookerNameByCompletedBooking(@Param("itemId") Long itemId,
+                                                      @Param("bookerId") Long bookerId,
+                                                      @Param("status") BookingStatus status,
+                                                      @Param("end") LocalDateTime end);
+
+    List<BookingInterval> findAllByItemIdAndStatusAndEndAfterOrderByStartAsc(Long itemId, BookingStatus status,
+                                                                             LocalDateTime from);
+
+    @Query("select b.id as id, b.item.id as itemId, b.start as start, b.end as end " +
+            "from Booking b " +
             "where b.item.id in :itemIds " +
-            "and b.start <= :now " +
-            "and b.end >= :now order by b.start DESC")
-    List<Booking> findCurrentBookingsByOwner(@Param("itemIds") List<Long> itemIds, @Param("now") LocalDateTime now);
-
-    List<Booking> findAllByItemIdInAndEndBeforeOrderByStartDesc(List<Long> itemIds, LocalDateTime now);
-
-    List<Booking> findAllByItemIdInAndStartAfterOrderByStartDesc(List<Long> itemIds, LocalDateTime now);
-
-    @Query("select b from Booking b " +
-            "where b.booker.id = :bookerId " +
             "and b.status = :status " +
-            "order by b.start desc ")
-    List<Booking> findBookingsByBookerAndStatus(@Param("bookerId") Long bookerId, @Param("status") BookingStatus status);
-
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = :ownerId " +
-            "and b.end < :now " +
-            "order by b.end desc ")
-    List<Booking> findLastBookingsByOwner(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
-
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = :ownerId " +
-            "and b.start > :now " +
-            "order by b.start asc ")
-    List<Booking> findNextBookingsByOwner(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
-
-    @Query("select b from Booking b " +
-            " where " +
-            "b.item.id = :itemId " +
-            "and b.booker.id = :bookerId " +
-            "and b.status= :status " +
-            "and b.end<:end ")
-    List<Booking> findByItemIdAndBookerIdAndStatusAndEndIsBefore(Long itemId, Long bookerId, BookingStatus status, LocalDateTime end);
+            "and b.end > :from " +
+            "order by b.start")
+    List<BookingItemInterval> findIntervalsByItemIdInAndStatusAndEndAfter(@Param("itemIds") Collection<Long> itemIds,
+                                                                          @Param("status") BookingStatus status,
+                                                                          @Param("from") LocalDateTime from);
+
+    @Query("select b.id as id, b.item.id as itemId, b.start as start, b.end as end " +
+            "from Booking b " +
+            "where b.item.id in :itemIds " +
+            "and b.status = :status " +
+            "and b.end > :from " +
+            "and b.start < :to " +
+            "order by b.start")
+    List<BookingItemInterval> findIntervalsByItemIdInAndStatus(@Param("itemIds") Collection<Long> itemIds,
+                                                               @Param("status") BookingStatus status,
+                                                               @Param("from") LocalDateTime from,
+                                                               @Param("to") LocalDateTime to);
+
+    @Query("select b.item.id from Booking b where b.id = :bookingId")
+    Optional<Long> findItemIdById(@Param("bookingId") Long bookingId);
+
+    @Query("select b.id as id, b.item.id as itemId, b.item.owner.id as ownerId, b.booker.id as bookerId, " +
+            "b.status as status, b.start as start, b.end as end " +
+            "from Booking b " +
+            "where b.id in :bookingIds")
+    List<BookingApprovalView> findApprovalViewsByIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status where b.id in :bookingIds")
+    int updateStatusByIdIn(@Param("bookingIds") Collection<Long> bookingIds, @Param("status") BookingStatus status);
 
     boolean existsByItemIdAndStatusAndEndAfterAndStartBefore(Long itemId, BookingStatus status, LocalDateTime start, LocalDateTime end);
+
+    @Query("select count(b) as total, " +
+            "coalesce(sum(case when b.start < :now and b.end > :now then 1 else 0 end), 0) as current, " +
+            "coalesce(sum(case when b.end < :now then 1 else 0 end), 0) as past, " +
+            "coalesce(sum(case when b.start > :now then 1 else 0 end), 0) as future, " +
+            "coalesce(sum(case when b.status = 'WAITING' then 1 else 0 end), 0) as waiting, " +
+            "coalesce(sum(case when b.status = 'REJECTED' then 1 else 0 end), 0) as rejected " +
+            "from Booking b " +
+            "where b.booker.id = :bookerId")
+    BookingStateCounts countStatesByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+
+    @Query("select count(b) as total, " +
+            "coalesce(sum(case when b.start <= :now and b.end >= :now then 1 else 0 end), 0) as current, " +
+            "coalesce(sum(case when b.end < :now then 1 else 0 end), 0) as past, " +
+            "coalesce(sum(case when b.start > :now then 1 else 0 end), 0) as future, " +
+            "coalesce(sum(case when b.status = 'WAITING' then 1 else 0 end), 0) as waiting, " +
+            "coalesce(sum(case when b.status = 'REJECTED' then 1 else 0 end), 0) as rejected " +
+            "from Booking b " +
+            "where b.item.owner.id = :ownerId")
+    BookingStateCounts countStatesByOwnerId(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "update bookings set status = 'CANCELED' " +
+            "where status = 'WAITING' " +
+            "and id in (select id from bookings " +
+            "where status = 'WAITING' and start_date < :now " +
+            "order by start_date, id limit :batchSize)", nativeQuery = true)
+    int cancelExpiredWaiting(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
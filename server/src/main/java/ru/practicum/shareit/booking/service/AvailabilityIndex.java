@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.service;
+
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface AvailabilityIndex {
+    boolean hasApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    Map<Long, List<BookingInterval>> findApprovedIntervals(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to);
+
+    void bookingApproved(Booking booking);
+
+    void bookingReleased(Booking booking);
+
+    void evict(Long itemId);
+}
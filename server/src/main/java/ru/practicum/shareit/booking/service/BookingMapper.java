@@ -1,7 +1,10 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStateCounts;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.item.model.Item;
@@ -34,6 +37,16 @@ public final class BookingMapper {
     }
 
 
+    public static Booking toBooking(BookingApprovalView view, BookingStatus status) {
+        return Booking.builder()
+                .id(view.getId())
+                .start(view.getStart())
+                .end(view.getEnd())
+                .status(status)
+                .item(Item.builder().id(view.getItemId()).build())
+                .build();
+    }
+
     public static BookingDto toBookingDto(Booking booking) {
         return BookingDto.builder()
                 .id(booking.getId())
@@ -44,4 +57,15 @@ public final class BookingMapper {
                 .item(ItemMapper.toItemDto(booking.getItem()))
                 .build();
     }
+
+    public static BookingSummaryDto toBookingSummaryDto(BookingStateCounts counts) {
+        return BookingSummaryDto.builder()
+                .all(counts.getTotal())
+                .current(counts.getCurrent())
+                .past(counts.getPast())
+                .future(counts.getFuture())
+                .waiting(counts.getWaiting())
+                .rejected(counts.getRejected())
+                .build();
+    }
 }
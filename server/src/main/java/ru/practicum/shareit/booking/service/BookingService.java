@@ -2,18 +2,31 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.BookingState;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BookingService {
     BookingDto createBooking(Long userId, BookingRequestDto bookingRequestDto);
 
+    List<BookingDto> createBookings(Long userId, List<BookingRequestDto> bookingRequestDtos);
+
     BookingDto updateBookingStatus(Long ownerId, Long bookingId, Boolean approved);
 
+    List<BookingStatusResultDto> updateBookingStatuses(Long ownerId, List<Long> bookingIds, Boolean approved);
+
     BookingDto getBookingById(Long userId, Long bookingId);
 
-    List<BookingDto> getBookingsByState(Long userId, BookingState state);
+    List<BookingDto> getBookingsByState(Long userId, BookingState state,
+                                        LocalDateTime cursorStart, Long cursorId, Integer size);
+
+    List<BookingDto> getBookingsForOwner(Long ownerId, BookingState state,
+                                         LocalDateTime cursorStart, Long cursorId, Integer size);
+
+    BookingSummaryDto getBookingSummary(Long userId);
 
-    List<BookingDto> getBookingsForOwner(Long ownerId, BookingState state);
+    BookingSummaryDto getBookingSummaryForOwner(Long ownerId);
 }
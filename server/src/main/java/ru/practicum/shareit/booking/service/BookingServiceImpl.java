@@ -3,29 +3,47 @@ package ru.practicum.shareit.booking.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingApprovalView;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingItemInterval;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.CommentEligibilityMemo;
+import ru.practicum.shareit.item.service.ItemDetailCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.service.BookingMapper.toBooking;
 import static ru.practicum.shareit.booking.service.BookingMapper.toBookingDto;
+import static ru.practicum.shareit.booking.service.BookingMapper.toBookingSummaryDto;
 
 @Slf4j
 @Service
@@ -34,8 +52,12 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final ItemDetailCache itemDetailCache;
+    private final CommentEligibilityMemo commentEligibilityMemo;
 
     @Override
+    @Transactional
     public BookingDto createBooking(Long userId, BookingRequestDto bookingRequestDto) {
         log.info("Начало создания бронирования: userId={}, itemId={}, start={}, end={}",
                 userId,
@@ -46,65 +68,158 @@ public class BookingServiceImpl implements BookingService {
 
         User booker = findUserById(userId);
         Long itemId = bookingRequestDto.getItemId();
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Вещь с id " + itemId + " не найдена."));
+        Item item = findItemForUpdate(itemId);
 
-        if (item.getOwner().getId().equals(userId)) {
-            log.warn("Пользователь с id={} пытается забронировать свою собственную вещь с id={}", userId, item.getId());
-            throw new ValidationException("Нельзя забронировать свою собственную вещь.");
-        }
+        Booking booking = toBooking(bookingRequestDto, booker, item);
+        validateBooking(userId, item, booking);
+        checkNoApprovedOverlap(item.getId(), booking.getStart(), booking.getEnd());
 
-        if (!item.getAvailable()) {
-            log.warn("Вещь с id={} недоступна для бронирования", item.getId());
-            throw new ValidationException("Вещь недоступна для бронирования.");
-        }
+        Booking savedBooking = bookingRepository.save(booking);
+        log.info("Бронирование успешно создано: bookingId={}, status={}", savedBooking.getId(), savedBooking.getStatus());
+        return toBookingDto(savedBooking);
+    }
 
-        Booking booking = toBooking(bookingRequestDto, booker, item);
-        if (!booking.getStart().isBefore(booking.getEnd())) {
-            log.warn("Некорректное время бронирования: start={}, end={}", booking.getStart(), booking.getEnd());
-            throw new ValidationException("Время начала бронирования должно быть раньше времени окончания.");
+    @Override
+    @Transactional
+    public List<BookingDto> createBookings(Long userId, List<BookingRequestDto> bookingRequestDtos) {
+        log.info("Начало пакетного создания бронирований: userId={}, count={}", userId, bookingRequestDtos.size());
+        if (bookingRequestDtos.isEmpty()) {
+            return List.of();
         }
 
-        boolean hasOverlap = bookingRepository.existsByItemIdAndStatusAndEndAfterAndStartBefore(
-                item.getId(),
-                BookingStatus.APPROVED,
-                booking.getStart(),
-                booking.getEnd()
-        );
+        User booker = findUserById(userId);
+        Map<Long, Item> items = itemRepository.findAllByIdInForUpdate(bookingRequestDtos.stream()
+                        .map(BookingRequestDto::getItemId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
 
-        if (hasOverlap) {
-            log.warn("Бронирование пересекается с уже существующим: itemId={}, start={}, end={}",
-                    item.getId(),
-                    booking.getStart(),
-                    booking.getEnd()
-            );
-            throw new ValidationException("Бронирование пересекается с уже существующим подтвержденным бронированием.");
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingRequestDto bookingRequestDto : bookingRequestDtos) {
+            Item item = items.get(bookingRequestDto.getItemId());
+            if (item == null) {
+                throw new NotFoundException("Вещь с id " + bookingRequestDto.getItemId() + " не найдена.");
+            }
+            Booking booking = toBooking(bookingRequestDto, booker, item);
+            validateBooking(userId, item, booking);
+            bookings.add(booking);
         }
+        checkNoApprovedOverlaps(bookings);
 
-        Booking savedBooking = bookingRepository.save(booking);
-        log.info("Бронирование успешно создано: bookingId={}, status={}", savedBooking.getId(), savedBooking.getStatus());
-        return toBookingDto(savedBooking);
+        List<Booking> savedBookings = bookingRepository.saveAll(bookings);
+        log.info("Пакетное создание бронирований завершено: userId={}, создано={}", userId, savedBookings.size());
+        return savedBookings.stream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
     }
 
 
     @Override
+    @Transactional
     public BookingDto updateBookingStatus(Long ownerId, Long bookingId, Boolean approved) {
         log.info("Запрос на изменение статуса бронирования: bookingId={}, ownerId={}, approved={}",
                 bookingId,
                 ownerId,
                 approved
         );
+        Long itemId = bookingRepository.findItemIdById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Бронирование с id " + bookingId + " не найдено."));
+        findItemForUpdate(itemId);
         Booking booking = findBookingById(bookingId);
         if (!Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
             log.warn("Пользователь с id={} не является владельцем вещи для бронирования с id={}", ownerId, bookingId);
             throw new ValidationException("Только владелец может подтвердить или отклонить бронирование.");
         }
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        Booking savedBooking = bookingRepository.save(booking);
+        BookingStatus previousStatus = booking.getStatus();
+        BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (approved && previousStatus != BookingStatus.APPROVED) {
+            checkNoApprovedOverlap(itemId, booking.getStart(), booking.getEnd());
+        }
+        booking.setStatus(newStatus);
+        Booking savedBooking;
+        try {
+            savedBooking = bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Подтверждение бронирования bookingId={} нарушает ограничение на пересечение", bookingId);
+            throw new ConflictException("Бронирование пересекается с уже существующим подтвержденным бронированием.");
+        }
+        if (previousStatus == newStatus) {
+            log.info("Статус бронирования bookingId={} не изменился: {}", bookingId, newStatus);
+        } else if (newStatus == BookingStatus.APPROVED) {
+            availabilityIndex.bookingApproved(savedBooking);
+            itemDetailCache.evict(savedBooking.getItem().getId());
+        } else if (previousStatus == BookingStatus.APPROVED) {
+            availabilityIndex.bookingReleased(savedBooking);
+            itemDetailCache.evict(savedBooking.getItem().getId());
+            commentEligibilityMemo.bookingReleased(savedBooking.getBooker().getId(), savedBooking.getItem().getId());
+        }
         log.info("Статус бронирования успешно обновлен: bookingId={}, новый статус={}", savedBooking.getId(), savedBooking.getStatus());
         return toBookingDto(savedBooking);
     }
 
+    @Override
+    @Transactional
+    public List<BookingStatusResultDto> updateBookingStatuses(Long ownerId, List<Long> bookingIds, Boolean approved) {
+        log.info("Пакетное изменение статуса бронирований: ownerId={}, count={}, approved={}",
+                ownerId,
+                bookingIds.size(),
+                approved
+        );
+        BookingStatus newStatus = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        itemRepository.findAllByOwnerIdAndBookingIdInForUpdate(ownerId, bookingIds);
+        Map<Long, BookingApprovalView> views = bookingRepository.findApprovalViewsByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(BookingApprovalView::getId, Function.identity()));
+
+        List<BookingStatusResultDto> results = new ArrayList<>();
+        List<BookingApprovalView> changed = new ArrayList<>();
+        Map<Long, List<BookingApprovalView>> acceptedByItem = new HashMap<>();
+        for (Long bookingId : new LinkedHashSet<>(bookingIds)) {
+            BookingApprovalView view = views.get(bookingId);
+            if (view == null) {
+                results.add(new BookingStatusResultDto(bookingId, null, "Бронирование с id " + bookingId + " не найдено."));
+                continue;
+            }
+            if (!Objects.equals(view.getOwnerId(), ownerId)) {
+                results.add(new BookingStatusResultDto(bookingId, null,
+                        "Только владелец может подтвердить или отклонить бронирование."));
+                continue;
+            }
+            if (approved && view.getStatus() != BookingStatus.APPROVED && overlapsApproved(view, acceptedByItem)) {
+                results.add(new BookingStatusResultDto(bookingId, view.getStatus(),
+                        "Бронирование пересекается с уже существующим подтвержденным бронированием."));
+                continue;
+            }
+            if (view.getStatus() != newStatus) {
+                changed.add(view);
+                if (approved) {
+                    acceptedByItem.computeIfAbsent(view.getItemId(), id -> new ArrayList<>()).add(view);
+                }
+            }
+            results.add(new BookingStatusResultDto(bookingId, newStatus, null));
+        }
+
+        if (!changed.isEmpty()) {
+            try {
+                bookingRepository.updateStatusByIdIn(changed.stream().map(BookingApprovalView::getId).toList(), newStatus);
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Пакетное подтверждение бронирований ownerId={} нарушает ограничение на пересечение", ownerId);
+                throw new ConflictException("Бронирование пересекается с уже существующим подтвержденным бронированием.");
+            }
+            changed.forEach(view -> {
+                if (newStatus == BookingStatus.APPROVED) {
+                    availabilityIndex.bookingApproved(toBooking(view, newStatus));
+                    itemDetailCache.evict(view.getItemId());
+                } else if (view.getStatus() == BookingStatus.APPROVED) {
+                    availabilityIndex.bookingReleased(toBooking(view, newStatus));
+                    itemDetailCache.evict(view.getItemId());
+                    commentEligibilityMemo.bookingReleased(view.getBookerId(), view.getItemId());
+                }
+            });
+        }
+        log.info("Пакетное изменение статуса завершено: ownerId={}, изменено={}", ownerId, changed.size());
+        return results;
+    }
+
     @Override
     public BookingDto getBookingById(Long userId, Long bookingId) {
         log.info("Запрос информации о бронировании: bookingId={}, userId={}", bookingId, userId);
@@ -118,72 +233,167 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getBookingsByState(Long userId, BookingState state) {
-        return findBookings(userId, state).stream()
+    public List<BookingDto> getBookingsByState(Long userId, BookingState state,
+                                               LocalDateTime cursorStart, Long cursorId, Integer size) {
+        ScrollPosition position = toScrollPosition(cursorStart, cursorId);
+        return findBookings(userId, state, position, Limit.of(size)).stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<BookingDto> getBookingsForOwner(Long ownerId, BookingState state) {
+    public List<BookingDto> getBookingsForOwner(Long ownerId, BookingState state,
+                                                LocalDateTime cursorStart, Long cursorId, Integer size) {
+        ScrollPosition position = toScrollPosition(cursorStart, cursorId);
         findUserById(ownerId);
-        List<Long> itemIds = itemRepository.findAllByOwnerId(ownerId).stream()
-                .map(Item::getId)
-                .toList();
-        if (itemIds.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        return findBookingsForOwner(itemIds, state).stream()
+        return findBookingsForOwner(ownerId, state, position, Limit.of(size)).stream()
                 .map(BookingMapper::toBookingDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public BookingSummaryDto getBookingSummary(Long userId) {
+        log.info("Запрос сводки бронирований для пользователя: userId={}", userId);
+        findUserById(userId);
+        return toBookingSummaryDto(bookingRepository.countStatesByBookerId(userId, LocalDateTime.now()));
+    }
 
-    private List<Booking> findBookings(Long userId, BookingState state) {
-        log.info("Запрос бронирований для пользователя: userId={}, state={}", userId, state);
+    @Override
+    public BookingSummaryDto getBookingSummaryForOwner(Long ownerId) {
+        log.info("Запрос сводки бронирований для владельца: ownerId={}", ownerId);
+        findUserById(ownerId);
+        return toBookingSummaryDto(bookingRepository.countStatesByOwnerId(ownerId, LocalDateTime.now()));
+    }
+
+
+    private Window<Booking> findBookings(Long userId, BookingState state, ScrollPosition position, Limit limit) {
+        log.info("Запрос бронирований для пользователя: userId={}, state={}, position={}, limit={}",
+                userId, state, position, limit.max());
         LocalDateTime now = LocalDateTime.now();
 
         switch (state) {
             case CURRENT:
-                return bookingRepository.findCurrentBookingsByBooker(userId, now);
+                return bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                        userId, now, now, position, limit);
             case PAST:
-                return bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now);
+                return bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDescIdDesc(
+                        userId, now, position, limit);
             case FUTURE:
-                return bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, now);
+                return bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDescIdDesc(
+                        userId, now, position, limit);
             case WAITING:
-                return bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
+                return bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
+                        userId, BookingStatus.WAITING, position, limit);
             case REJECTED:
-                return bookingRepository.findBookingsByBookerAndStatus(userId, BookingStatus.REJECTED);
+                return bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
+                        userId, BookingStatus.REJECTED, position, limit);
             case ALL:
-                return bookingRepository.findAllByBookerIdOrderByStartDesc(userId);
+                return bookingRepository.findAllByBookerIdOrderByStartDescIdDesc(userId, position, limit);
             default:
                 throw new IllegalArgumentException("Неизвестное состояние бронирования: " + state);
         }
     }
 
-    private List<Booking> findBookingsForOwner(List<Long> itemIds, BookingState state) {
-        log.info("Запрос бронирований для владельца: itemIds={}, state={}", itemIds, state);
+    private Window<Booking> findBookingsForOwner(Long ownerId, BookingState state,
+                                                 ScrollPosition position, Limit limit) {
+        log.info("Запрос бронирований для владельца: ownerId={}, state={}, position={}, limit={}",
+                ownerId, state, position, limit.max());
         LocalDateTime now = LocalDateTime.now();
 
         switch (state) {
             case CURRENT:
-                return bookingRepository.findCurrentBookingsByOwner(itemIds, now);
+                return bookingRepository.findAllByItemOwnerIdAndStartLessThanEqualAndEndGreaterThanEqualOrderByStartDescIdDesc(
+                        ownerId, now, now, position, limit);
             case PAST:
-                return bookingRepository.findAllByItemIdInAndEndBeforeOrderByStartDesc(itemIds, now);
+                return bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDescIdDesc(
+                        ownerId, now, position, limit);
             case FUTURE:
-                return bookingRepository.findAllByItemIdInAndStartAfterOrderByStartDesc(itemIds, now);
+                return bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(
+                        ownerId, now, position, limit);
             case WAITING:
-                return bookingRepository.findAllByItemIdInAndStatusOrderByStartDesc(itemIds, BookingStatus.WAITING);
+                return bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                        ownerId, BookingStatus.WAITING, position, limit);
             case REJECTED:
-                return bookingRepository.findAllByItemIdInAndStatusOrderByStartDesc(itemIds, BookingStatus.REJECTED);
+                return bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDescIdDesc(
+                        ownerId, BookingStatus.REJECTED, position, limit);
             case ALL:
-                return bookingRepository.findAllByItemIdInOrderByStartDesc(itemIds);
+                return bookingRepository.findAllByItemOwnerIdOrderByStartDescIdDesc(ownerId, position, limit);
             default:
                 throw new IllegalArgumentException("Неизвестное состояние бронирования: " + state);
         }
     }
 
+    private ScrollPosition toScrollPosition(LocalDateTime cursorStart, Long cursorId) {
+        if (cursorStart == null && cursorId == null) {
+            return ScrollPosition.keyset();
+        }
+        if (cursorStart == null || cursorId == null) {
+            throw new ValidationException("Курсор должен содержать и cursorStart, и cursorId.");
+        }
+        return ScrollPosition.forward(Map.of("start", cursorStart, "id", cursorId));
+    }
+
+    private void validateBooking(Long userId, Item item, Booking booking) {
+        if (item.getOwner().getId().equals(userId)) {
+            log.warn("Пользователь с id={} пытается забронировать свою собственную вещь с id={}", userId, item.getId());
+            throw new ValidationException("Нельзя забронировать свою собственную вещь.");
+        }
+
+        if (!item.getAvailable()) {
+            log.warn("Вещь с id={} недоступна для бронирования", item.getId());
+            throw new ValidationException("Вещь недоступна для бронирования.");
+        }
+
+        if (!booking.getStart().isBefore(booking.getEnd())) {
+            log.warn("Некорректное время бронирования: start={}, end={}", booking.getStart(), booking.getEnd());
+            throw new ValidationException("Время начала бронирования должно быть раньше времени окончания.");
+        }
+    }
+
+    private void checkNoApprovedOverlaps(List<Booking> bookings) {
+        LocalDateTime from = bookings.stream().map(Booking::getStart).min(LocalDateTime::compareTo).orElseThrow();
+        LocalDateTime to = bookings.stream().map(Booking::getEnd).max(LocalDateTime::compareTo).orElseThrow();
+        Set<Long> itemIds = bookings.stream().map(booking -> booking.getItem().getId()).collect(Collectors.toSet());
+        Map<Long, List<BookingItemInterval>> approvedByItem = bookingRepository
+                .findIntervalsByItemIdInAndStatus(itemIds, BookingStatus.APPROVED, from, to)
+                .stream()
+                .collect(Collectors.groupingBy(BookingItemInterval::getItemId));
+
+        for (Booking booking : bookings) {
+            Long itemId = booking.getItem().getId();
+            boolean hasOverlap = approvedByItem.getOrDefault(itemId, List.of()).stream()
+                    .anyMatch(approved -> approved.getStart().isBefore(booking.getEnd())
+                            && approved.getEnd().isAfter(booking.getStart()));
+            if (hasOverlap) {
+                log.warn("Бронирование пересекается с уже существующим: itemId={}, start={}, end={}",
+                        itemId, booking.getStart(), booking.getEnd());
+                throw new ValidationException("Бронирование вещи с id " + itemId
+                        + " пересекается с уже существующим подтвержденным бронированием.");
+            }
+        }
+    }
+
+    private boolean overlapsApproved(BookingApprovalView view, Map<Long, List<BookingApprovalView>> acceptedByItem) {
+        boolean overlapsAccepted = acceptedByItem.getOrDefault(view.getItemId(), List.of()).stream()
+                .anyMatch(accepted -> accepted.getStart().isBefore(view.getEnd())
+                        && accepted.getEnd().isAfter(view.getStart()));
+        return overlapsAccepted || availabilityIndex.hasApprovedOverlap(view.getItemId(), view.getStart(), view.getEnd());
+    }
+
+    private void checkNoApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        boolean hasOverlap = availabilityIndex.hasApprovedOverlap(itemId, start, end);
+
+        if (hasOverlap) {
+            log.warn("Бронирование пересекается с уже существующим: itemId={}, start={}, end={}", itemId, start, end);
+            throw new ValidationException("Бронирование пересекается с уже существующим подтвержденным бронированием.");
+        }
+    }
+
+    private Item findItemForUpdate(Long itemId) {
+        return itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException("Вещь с id " + itemId + " не найдена."));
+    }
+
     private User findUserById(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id " + userId + " не найден."));
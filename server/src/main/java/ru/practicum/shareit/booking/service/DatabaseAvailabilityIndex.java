@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingItemInterval;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.availability-index.type", havingValue = "database")
+public class DatabaseAvailabilityIndex implements AvailabilityIndex {
+    private final BookingRepository bookingRepository;
+
+    @Override
+    public boolean hasApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.existsByItemIdAndStatusAndEndAfterAndStartBefore(itemId, BookingStatus.APPROVED, start, end);
+    }
+
+    @Override
+    public Map<Long, List<BookingInterval>> findApprovedIntervals(Collection<Long> itemIds,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        return bookingRepository.findIntervalsByItemIdInAndStatus(itemIds, BookingStatus.APPROVED, from, to).stream()
+                .filter(interval -> interval.getStart() != null && interval.getEnd() != null)
+                .collect(Collectors.groupingBy(BookingItemInterval::getItemId,
+                        Collectors.mapping(interval -> (BookingInterval) interval, Collectors.toList())));
+    }
+
+    @Override
+    public void bookingApproved(Booking booking) {
+    }
+
+    @Override
+    public void bookingReleased(Booking booking) {
+    }
+
+    @Override
+    public void evict(Long itemId) {
+    }
+}
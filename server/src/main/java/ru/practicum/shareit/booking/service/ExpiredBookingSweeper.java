@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отменяет бронирования в статусе WAITING, время начала которых уже прошло.
+ * Обновление идёт пачками ограниченного размера, каждая пачка — отдельная транзакция.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredBookingSweeper {
+    private final BookingRepository bookingRepository;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Counter sweptCounter;
+    private final Timer sweepTimer;
+
+    public ExpiredBookingSweeper(BookingRepository bookingRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.booking.sweeper.batch-size:500}") int batchSize,
+                                 @Value("${shareit.booking.sweeper.max-batches:100}") int maxBatches) {
+        this.bookingRepository = bookingRepository;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.sweptCounter = Counter.builder("shareit.booking.sweeper.swept")
+                .description("Количество отменённых просроченных бронирований")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("shareit.booking.sweeper.duration")
+                .description("Длительность прохода по просроченным бронированиям")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.sweeper.interval:PT1M}")
+    public int sweep() {
+        return sweepTimer.record(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            int swept = 0;
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int updated = bookingRepository.cancelExpiredWaiting(now, batchSize);
+                swept += updated;
+                sweptCounter.increment(updated);
+                if (updated < batchSize) {
+                    break;
+                }
+            }
+            if (swept > 0) {
+                log.info("Отменено просроченных бронирований в статусе WAITING: {}", swept);
+            }
+            return swept;
+        });
+    }
+}
@@ -0,0 +1,379 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingItemInterval;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Подтверждённые интервалы бронирований по вещам. Для каждой вещи хранятся отсортированные по началу
+ * массивы микросекунд и префиксный максимум окончаний, поэтому проверка пересечения — один бинарный поиск.
+ * Вещь загружается из БД при первой проверке пересечения, записи вытесняются по LRU и устаревают через ttl.
+ * Изменения применяются после фиксации транзакции под блокировкой вещи, которую берёт и проверка пересечения.
+ * Чтение календаря загружает недостающие вещи одним запросом и кладёт их в индекс, если за время запроса
+ * по полосе блокировок вещи не применялось изменений: иначе прочитанный снимок мог устареть.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.booking.availability-index.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryAvailabilityIndex implements AvailabilityIndex {
+    private static final int LOCK_STRIPES = 256;
+
+    private final BookingRepository bookingRepository;
+    private final Duration ttl;
+    private final Map<Long, ItemIntervals> intervalsByItem;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final AtomicLongArray versions = new AtomicLongArray(LOCK_STRIPES);
+
+    public InMemoryAvailabilityIndex(BookingRepository bookingRepository,
+                                     @Value("${shareit.booking.availability-index.max-items:10000}") int maxItems,
+                                     @Value("${shareit.booking.availability-index.ttl:PT5M}") Duration ttl) {
+        this.bookingRepository = bookingRepository;
+        this.ttl = ttl;
+        this.intervalsByItem = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemIntervals> eldest) {
+                return size() > maxItems;
+            }
+        });
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public boolean hasApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemIntervals intervals;
+        ReentrantLock lock = locks[stripe(itemId)];
+        lock.lock();
+        try {
+            intervals = intervalsByItem.get(itemId);
+            if (intervals == null || intervals.isExpired(ttl)) {
+                intervals = load(itemId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (start.isBefore(intervals.from)) {
+            return bookingRepository.existsByItemIdAndStatusAndEndAfterAndStartBefore(
+                    itemId, BookingStatus.APPROVED, start, end);
+        }
+        return intervals.overlaps(toMicros(start), toMicros(end));
+    }
+
+    @Override
+    public Map<Long, List<BookingInterval>> findApprovedIntervals(Collection<Long> itemIds,
+                                                                  LocalDateTime from, LocalDateTime to) {
+        Map<Long, List<BookingInterval>> result = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long itemId : new LinkedHashSet<>(itemIds)) {
+            ItemIntervals intervals = intervalsByItem.get(itemId);
+            if (intervals == null || intervals.isExpired(ttl) || from.isBefore(intervals.from)) {
+                uncached.add(itemId);
+            } else {
+                result.put(itemId, intervals.between(toMicros(from), toMicros(to)));
+            }
+        }
+        if (uncached.isEmpty()) {
+            return result;
+        }
+        LocalDateTime horizon = LocalDateTime.now();
+        if (from.isBefore(horizon.minus(ttl))) {
+            bookingRepository.findIntervalsByItemIdInAndStatus(uncached, BookingStatus.APPROVED, from, to).stream()
+                    .filter(interval -> interval.getStart() != null && interval.getEnd() != null)
+                    .forEach(interval -> result.computeIfAbsent(interval.getItemId(), id -> new ArrayList<>()).add(interval));
+            return result;
+        }
+        if (from.isBefore(horizon)) {
+            horizon = from;
+        }
+        Map<Long, Long> stamps = new HashMap<>();
+        uncached.forEach(itemId -> stamps.put(itemId, versions.get(stripe(itemId))));
+        Map<Long, List<BookingItemInterval>> loaded = bookingRepository.findIntervalsByItemIdInAndStatusAndEndAfter(
+                        uncached, BookingStatus.APPROVED, horizon).stream()
+                .collect(Collectors.groupingBy(BookingItemInterval::getItemId));
+        for (Long itemId : uncached) {
+            ItemIntervals intervals = ItemIntervals.of(horizon, loaded.getOrDefault(itemId, List.of()));
+            ReentrantLock lock = locks[stripe(itemId)];
+            lock.lock();
+            try {
+                if (versions.get(stripe(itemId)) == stamps.get(itemId)) {
+                    intervalsByItem.put(itemId, intervals);
+                }
+            } finally {
+                lock.unlock();
+            }
+            result.put(itemId, intervals.between(toMicros(from), toMicros(to)));
+        }
+        log.debug("Загружены интервалы вещей для календаря: {}", uncached);
+        return result;
+    }
+
+    @Override
+    public void bookingApproved(Booking booking) {
+        change(booking.getItem().getId(), intervals -> intervals.with(booking));
+    }
+
+    @Override
+    public void bookingReleased(Booking booking) {
+        change(booking.getItem().getId(), intervals -> intervals.without(booking.getId()));
+    }
+
+    @Override
+    public void evict(Long itemId) {
+        ReentrantLock lock = locks[stripe(itemId)];
+        lock.lock();
+        try {
+            versions.incrementAndGet(stripe(itemId));
+            intervalsByItem.remove(itemId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ItemIntervals load(Long itemId) {
+        LocalDateTime from = LocalDateTime.now();
+        List<BookingInterval> approved = bookingRepository.findAllByItemIdAndStatusAndEndAfterOrderByStartAsc(
+                itemId, BookingStatus.APPROVED, from);
+        ItemIntervals intervals = ItemIntervals.of(from, approved);
+        intervalsByItem.put(itemId, intervals);
+        log.debug("Загружены интервалы вещи itemId={}: {}", itemId, approved.size());
+        return intervals;
+    }
+
+    private void change(Long itemId, UnaryOperator<ItemIntervals> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyLocked(List.of(new PendingChange(itemId, change)));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.changes.add(new PendingChange(itemId, change));
+    }
+
+    private void applyLocked(List<PendingChange> changes) {
+        List<ReentrantLock> held = lockStripes(changes);
+        try {
+            apply(changes);
+        } finally {
+            unlock(held);
+        }
+    }
+
+    private void apply(List<PendingChange> changes) {
+        for (PendingChange pending : changes) {
+            versions.incrementAndGet(stripe(pending.itemId));
+            intervalsByItem.computeIfPresent(pending.itemId, (id, intervals) -> pending.change.apply(intervals));
+        }
+    }
+
+    private List<ReentrantLock> lockStripes(List<PendingChange> changes) {
+        List<ReentrantLock> held = new ArrayList<>();
+        changes.stream()
+                .map(pending -> stripe(pending.itemId))
+                .collect(Collectors.toCollection(TreeSet::new))
+                .forEach(stripe -> {
+                    locks[stripe].lock();
+                    held.add(locks[stripe]);
+                });
+        return held;
+    }
+
+    private static void unlock(List<ReentrantLock> held) {
+        for (int i = held.size() - 1; i >= 0; i--) {
+            held.get(i).unlock();
+        }
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), LOCK_STRIPES);
+    }
+
+    private static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Изменения индекса в рамках транзакции. Блокировки вещей берутся перед фиксацией и держатся до её окончания,
+     * поэтому проверка пересечения по этой вещи не увидит ни незафиксированных, ни ещё не применённых изменений.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+        private final List<PendingChange> changes = new ArrayList<>();
+        private List<ReentrantLock> held = List.of();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            held = lockStripes(changes);
+        }
+
+        @Override
+        public void afterCommit() {
+            apply(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryAvailabilityIndex.this);
+            unlock(held);
+            held = List.of();
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class PendingChange {
+        private final Long itemId;
+        private final UnaryOperator<ItemIntervals> change;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class Interval implements BookingInterval {
+        private final Long id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+    }
+
+    private static final class ItemIntervals {
+        private final LocalDateTime from;
+        private final long loadedAt;
+        private final long[] ids;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnds;
+
+        private ItemIntervals(LocalDateTime from, long loadedAt, long[] ids, long[] starts, long[] ends) {
+            this.from = from;
+            this.loadedAt = loadedAt;
+            this.ids = ids;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxEnds = new long[ends.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        static ItemIntervals of(LocalDateTime from, List<? extends BookingInterval> approved) {
+            List<? extends BookingInterval> complete = approved.stream()
+                    .filter(interval -> interval.getStart() != null && interval.getEnd() != null)
+                    .toList();
+            long[] ids = new long[complete.size()];
+            long[] starts = new long[complete.size()];
+            long[] ends = new long[complete.size()];
+            for (int i = 0; i < complete.size(); i++) {
+                ids[i] = complete.get(i).getId();
+                starts[i] = toMicros(complete.get(i).getStart());
+                ends[i] = toMicros(complete.get(i).getEnd());
+            }
+            return new ItemIntervals(from, System.nanoTime(), ids, starts, ends);
+        }
+
+        boolean isExpired(Duration ttl) {
+            return System.nanoTime() - loadedAt > ttl.toNanos();
+        }
+
+        boolean overlaps(long start, long end) {
+            int count = countStartingBefore(end);
+            return count > 0 && maxEnds[count - 1] > start;
+        }
+
+        List<BookingInterval> between(long start, long end) {
+            List<BookingInterval> result = new ArrayList<>();
+            int count = countStartingBefore(end);
+            for (int i = 0; i < count; i++) {
+                if (ends[i] > start) {
+                    result.add(new Interval(ids[i], fromMicros(starts[i]), fromMicros(ends[i])));
+                }
+            }
+            return result;
+        }
+
+        ItemIntervals with(Booking booking) {
+            ItemIntervals cleaned = without(booking.getId());
+            if (booking.getStart() == null || booking.getEnd() == null) {
+                return cleaned;
+            }
+            long start = toMicros(booking.getStart());
+            int position = cleaned.countStartingBefore(start + 1);
+            return new ItemIntervals(from, loadedAt,
+                    insert(cleaned.ids, position, booking.getId()),
+                    insert(cleaned.starts, position, start),
+                    insert(cleaned.ends, position, toMicros(booking.getEnd())));
+        }
+
+        ItemIntervals without(Long bookingId) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == bookingId) {
+                    return new ItemIntervals(from, loadedAt, remove(ids, i), remove(starts, i), remove(ends, i));
+                }
+            }
+            return this;
+        }
+
+        private int countStartingBefore(long value) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static long[] insert(long[] source, int position, long value) {
+            long[] result = Arrays.copyOf(source, source.length + 1);
+            System.arraycopy(source, position, result, position + 1, source.length - position);
+            result[position] = value;
+            return result;
+        }
+
+        private static long[] remove(long[] source, int position) {
+            long[] result = new long[source.length - 1];
+            System.arraycopy(source, 0, result, 0, position);
+            System.arraycopy(source, position + 1, result, position, source.length - position - 1);
+            return result;
+        }
+    }
+}
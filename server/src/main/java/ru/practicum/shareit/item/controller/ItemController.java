@@ -1,16 +1,37 @@
 package ru.practicum.shareit.item.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.CommentImportDto;
+import ru.practicum.shareit.item.dto.CommentImportResultDto;
 import ru.practicum.shareit.item.dto.CommentSaveDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemSaveDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+import ru.practicum.shareit.item.service.CommentImportService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController("itemController")
@@ -19,18 +40,42 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
+    private static final String HEADER_ADMIN_TOKEN = "X-Admin-Token";
     private final ItemService itemService;
+    private final CommentImportService commentImportService;
+    private final ObjectMapper objectMapper;
 
 
     @GetMapping
-    List<ItemDto> getItemsByOwnerId(@RequestHeader(HEADER_USER_ID) Long userId) {
-        return itemService.getItemsWithBookings(userId);
+    List<ItemDto> getItemsByOwnerId(@RequestHeader(HEADER_USER_ID) Long userId,
+                                    @RequestParam(defaultValue = "0") Integer from,
+                                    @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.getItemsWithBookings(userId, from, size);
     }
 
 
+    @GetMapping("/availability")
+    List<ItemAvailabilityDto> getAvailability(@RequestParam List<Long> itemIds,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemIds, from, to);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    ItemAvailabilityDto getAvailability(@PathVariable Long itemId,
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping("/{itemId}")
-    ItemDto getItem(@PathVariable Long itemId) {
-        return itemService.getItem(itemId);
+    ItemDto getItem(@RequestHeader(value = HEADER_USER_ID, required = false) Long userId,
+                    @PathVariable Long itemId) {
+        return itemService.getItem(userId, itemId);
     }
 
     @PostMapping
@@ -50,9 +95,64 @@ public class ItemController {
     }
 
 
+    @GetMapping("/{itemId}/comments")
+    List<CommentDto> getComments(@PathVariable Long itemId,
+                                 @RequestParam(required = false)
+                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+                                 @RequestParam(required = false) Long idBefore,
+                                 @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.getComments(itemId, createdBefore, idBefore, size);
+    }
+
+
+    @PostMapping(value = "/comments/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    CommentImportResultDto importComments(@RequestHeader(value = HEADER_ADMIN_TOKEN, required = false) String adminToken,
+                                          InputStream body) throws IOException {
+        log.info("Импорт комментариев");
+        commentImportService.checkAccess(adminToken);
+        try (MappingIterator<CommentImportDto> comments = objectMapper.readerFor(CommentImportDto.class)
+                .readValues(body)) {
+            return commentImportService.importComments(comments);
+        } catch (RuntimeException e) {
+            if (e instanceof RuntimeJsonMappingException || e.getCause() instanceof JsonProcessingException) {
+                throw new ValidationException("Некорректные данные импорта: " + e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+
     @GetMapping("/search")
-    List<ItemDto> search(@RequestParam String text) {
-        return itemService.searchItems(text);
+    List<ItemDto> search(@RequestParam String text,
+                         @RequestParam(defaultValue = "RELEVANCE") ItemSearchSort sort,
+                         @RequestParam(defaultValue = "0") Integer from,
+                         @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.searchItems(text, sort, from, size);
+    }
+
+
+    @GetMapping(value = "/search/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> export(@RequestParam String text) {
+        log.info("Выгрузка вещей по тексту: {}", text);
+        ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = outputStream -> itemService.exportItems(text, item -> {
+            try {
+                writer.writeValue(outputStream, item);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+
+    @GetMapping("/suggest")
+    List<ItemSuggestionDto> suggest(@RequestParam String prefix,
+                                    @RequestParam(defaultValue = "10") Integer size) {
+        return itemService.suggestItems(prefix, size);
     }
 
 
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+public interface ItemDetailRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getOwnerId();
+
+    LocalDateTime getLastBookingStart();
+
+    LocalDateTime getNextBookingStart();
+
+    Long getCommentCount();
+
+    Long getCommentId();
+
+    String getCommentText();
+
+    String getCommentAuthorName();
+
+    LocalDateTime getCommentCreated();
+}
@@ -20,6 +20,7 @@ public class ItemDto {
     private LocalDateTime nextBooking;
     private LocalDateTime lastBooking;
     private List<CommentDto> comments;
+    private Long commentCount;
 
     public ItemDto(Long id, String name, String description, Boolean available) {
         this.setId(id);
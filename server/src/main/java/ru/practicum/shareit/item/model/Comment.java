@@ -2,7 +2,6 @@ package ru.practicum.shareit.item.model;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.CreationTimestamp;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -17,7 +16,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comment_seq", allocationSize = 50)
     private Long id;
 
     @Column(length = 400)
@@ -33,6 +33,13 @@ public class Comment {
     @JoinColumn(name = "author_id")
     private User author;
 
-    @CreationTimestamp
+    @Column(nullable = false)
     private LocalDateTime created;
+
+    @PrePersist
+    void onCreate() {
+        if (created == null) {
+            created = LocalDateTime.now();
+        }
+    }
 }
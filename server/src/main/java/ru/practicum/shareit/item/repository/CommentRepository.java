@@ -1,12 +1,45 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemCommentCount;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(Long itemId);
+    @Query("select c.id as id, c.item.id as itemId, c.text as text, a.name as authorName, c.created as created " +
+            "from Comment c join c.author a " +
+            "where c.item.id = :itemId " +
+            "order by c.created desc, c.id desc " +
+            "limit :size")
+    List<CommentView> findLatestByItemId(@Param("itemId") Long itemId, @Param("size") int size);
 
-    List<Comment> findByItem_Owner_Id(Long ownerId);
+    @Query("select c.id as id, c.item.id as itemId, c.text as text, a.name as authorName, c.created as created " +
+            "from Comment c join c.author a " +
+            "where c.item.id = :itemId " +
+            "and (c.created < :created or (c.created = :created and c.id < :id)) " +
+            "order by c.created desc, c.id desc " +
+            "limit :size")
+    List<CommentView> findByItemIdBefore(@Param("itemId") Long itemId,
+                                         @Param("created") LocalDateTime created,
+                                         @Param("id") Long id,
+                                         @Param("size") int size);
+
+    @Query(value = "select c.id as id, c.item_id as itemId, c.text as text, u.name as authorName, c.created as created " +
+            "from (select id, item_id, text, author_id, created, " +
+            "row_number() over (partition by item_id order by created desc, id desc) as position " +
+            "from comments where item_id in (:itemIds)) c " +
+            "join users u on u.id = c.author_id " +
+            "where c.position <= :limit " +
+            "order by c.item_id, c.created desc, c.id desc", nativeQuery = true)
+    List<CommentView> findLatestByItemIdIn(@Param("itemIds") Collection<Long> itemIds, @Param("limit") int limit);
+
+    @Query("select c.item.id as itemId, count(c) as count from Comment c " +
+            "where c.item.id in :itemIds group by c.item.id")
+    List<ItemCommentCount> countByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
 }
@@ -1,19 +1,115 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemDetailRow;
+import ru.practicum.shareit.item.dto.ItemSearchView;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwnerId(Long id);
 
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available, " +
+            "i.owner.id as ownerId, " +
+            "(select b.start from Booking b where b.item.id = i.id and b.status = :status and b.end < :now " +
+            "order by b.end desc, b.id desc limit 1) as lastBookingStart, " +
+            "(select b.start from Booking b where b.item.id = i.id and b.status = :status and b.start > :now " +
+            "order by b.start, b.id limit 1) as nextBookingStart, " +
+            "(select count(cc) from Comment cc where cc.item.id = i.id) as commentCount, " +
+            "c.id as commentId, c.text as commentText, a.name as commentAuthorName, c.created as commentCreated " +
+            "from Item i left join Comment c on c.item.id = i.id left join c.author a " +
+            "where i.id = :itemId " +
+            "order by c.created desc nulls last, c.id desc " +
+            "limit :commentsLimit")
+    List<ItemDetailRow> findDetailById(@Param("itemId") Long itemId,
+                                       @Param("status") BookingStatus status,
+                                       @Param("now") LocalDateTime now,
+                                       @Param("commentsLimit") int commentsLimit);
+
+    @Query("select i from Item i where i.owner.id = :ownerId order by i.id limit :size offset :from")
+    List<Item> findPageByOwnerId(@Param("ownerId") Long ownerId, @Param("from") int from, @Param("size") int size);
+
+    @Query(" select i from Item i " +
+            "where i.available is true " +
+            "and (upper(i.name) like upper(concat('%', :text, '%')) " +
+            "or upper(i.description) like upper(concat('%', :text, '%'))) " +
+            "order by case when upper(i.name) like upper(concat('%', :text, '%')) then 0 else 1 end, i.id " +
+            "limit :size offset :from")
+    List<Item> searchItems(@Param("text") String text, @Param("from") int from, @Param("size") int size);
+
     @Query(" select i from Item i " +
             "where i.available is true " +
-            "and (upper(i.name) like upper(concat('%',?1,'%')) " +
-            "or upper(i.description) like upper(concat('%',?1,'%')))")
-    List<Item> searchItems(String text);
+            "and (upper(i.name) like upper(concat('%', :text, '%')) " +
+            "or upper(i.description) like upper(concat('%', :text, '%'))) " +
+            "order by upper(i.name), i.id " +
+            "limit :size offset :from")
+    List<Item> searchItemsOrderByName(@Param("text") String text, @Param("from") int from, @Param("size") int size);
+
+    @Query(value = "select i.* from items i " +
+            "where i.is_available " +
+            "and (i.search_vector @@ plainto_tsquery('simple', :text) " +
+            "or i.name ilike :pattern or i.description ilike :pattern) " +
+            "order by ts_rank(i.search_vector, plainto_tsquery('simple', :text)) desc, " +
+            "similarity(i.name, :text) desc, i.id " +
+            "limit :size offset :from", nativeQuery = true)
+    List<Item> fullTextSearch(@Param("text") String text, @Param("pattern") String pattern,
+                              @Param("from") int from, @Param("size") int size);
+
+    @Query(value = "select i.* from items i " +
+            "where i.is_available " +
+            "and (i.search_vector @@ plainto_tsquery('simple', :text) " +
+            "or i.name ilike :pattern or i.description ilike :pattern) " +
+            "order by lower(i.name), i.id " +
+            "limit :size offset :from", nativeQuery = true)
+    List<Item> fullTextSearchOrderByName(@Param("text") String text, @Param("pattern") String pattern,
+                                         @Param("from") int from, @Param("size") int size);
 
     List<Item> findAllByRequestId(Long requestId);
+
+    @Query("select i from Item i join fetch i.owner where i.request.id in :requestIds order by i.id")
+    List<Item> findAllByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query("select i.id as id, i.name as name, i.description as description from Item i where i.available = true")
+    List<ItemSearchView> findAllAvailableForSearch();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select i.id as id, i.name as name, i.description as description from Item i " +
+            "where i.available is true " +
+            "and (upper(i.name) like upper(concat('%', :text, '%')) " +
+            "or upper(i.description) like upper(concat('%', :text, '%'))) " +
+            "order by i.id")
+    Stream<ItemSearchView> streamAvailableByText(@Param("text") String text);
+
+    @Query("select i.id from Item i where i.id in :itemIds")
+    List<Long> findIdsByIdIn(@Param("itemIds") Collection<Long> itemIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :itemId")
+    Optional<Item> findByIdForUpdate(@Param("itemId") Long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id in :itemIds order by i.id")
+    List<Item> findAllByIdInForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.owner.id = :ownerId "
+            + "and i.id in (select b.item.id from Booking b where b.id in :bookingIds) order by i.id")
+    List<Item> findAllByOwnerIdAndBookingIdInForUpdate(@Param("ownerId") Long ownerId,
+                                                       @Param("bookingIds") Collection<Long> bookingIds);
 }
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Пары (пользователь, вещь), для которых уже найдено завершённое подтверждённое бронирование.
+ * Запись снимается, когда подтверждённое бронирование отклоняют, и при удалении пользователя или вещи;
+ * кроме этого записи не устаревают и вытесняются только по LRU.
+ */
+@Component
+public class CommentEligibilityMemo {
+    private final Map<Key, Boolean> eligible;
+
+    public CommentEligibilityMemo(@Value("${shareit.item.comment-eligibility.max-entries:100000}") int maxEntries) {
+        this.eligible = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public boolean isEligible(Long userId, Long itemId) {
+        return eligible.containsKey(new Key(userId, itemId));
+    }
+
+    public void markEligible(Long userId, Long itemId) {
+        eligible.put(new Key(userId, itemId), Boolean.TRUE);
+    }
+
+    public void bookingReleased(Long userId, Long itemId) {
+        eligible.remove(new Key(userId, itemId));
+    }
+
+    public void userDeleted(Long userId) {
+        synchronized (eligible) {
+            eligible.keySet().removeIf(key -> key.userId.equals(userId));
+        }
+    }
+
+    public void itemDeleted(Long itemId) {
+        synchronized (eligible) {
+            eligible.keySet().removeIf(key -> key.itemId.equals(itemId));
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class Key {
+        private final Long userId;
+        private final Long itemId;
+    }
+}
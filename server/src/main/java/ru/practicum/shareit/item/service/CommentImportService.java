@@ -0,0 +1,190 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.item.dto.CommentImportDto;
+import ru.practicum.shareit.item.dto.CommentImportErrorDto;
+import ru.practicum.shareit.item.dto.CommentImportResultDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Массовый импорт комментариев. Поток читается пачками по chunkSize строк, каждая пачка — отдельная транзакция:
+ * авторы и вещи проверяются двумя запросами на всю пачку, вставка идёт JDBC-батчами Hibernate.
+ * Проверка бронирования, обязательная для обычного комментария, при импорте не выполняется.
+ * Импорт доступен только с токеном администратора shareit.item.comment-import.admin-token; без настроенного токена
+ * он выключен.
+ */
+@Slf4j
+@Service
+public class CommentImportService {
+    private static final int MAX_TEXT_LENGTH = 400;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final ItemDetailCache itemDetailCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final byte[] adminToken;
+    private final Counter importedCounter;
+
+    public CommentImportService(UserRepository userRepository,
+                                ItemRepository itemRepository,
+                                CommentRepository commentRepository,
+                                ItemDetailCache itemDetailCache,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${shareit.item.comment-import.chunk-size:500}") int chunkSize,
+                                @Value("${shareit.item.comment-import.admin-token:}") String adminToken) {
+        this.userRepository = userRepository;
+        this.itemRepository = itemRepository;
+        this.commentRepository = commentRepository;
+        this.itemDetailCache = itemDetailCache;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+        this.importedCounter = Counter.builder("shareit.item.comment.import.rows")
+                .description("Количество импортированных комментариев")
+                .register(meterRegistry);
+    }
+
+    public void checkAccess(String token) {
+        if (adminToken.length == 0) {
+            throw new ForbiddenException("Импорт комментариев отключён.");
+        }
+        if (token == null || !MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Отклонён импорт комментариев с неверным токеном администратора");
+            throw new ForbiddenException("Импорт комментариев доступен только администратору.");
+        }
+    }
+
+    public CommentImportResultDto importComments(Iterator<CommentImportDto> comments) {
+        long startNanos = System.nanoTime();
+        ImportReport report = new ImportReport();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long line = 0;
+        while (comments.hasNext()) {
+            chunk.add(new Row(++line, comments.next()));
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, report);
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        double rowsPerSecond = elapsedNanos > 0 ? report.imported * 1e9 / elapsedNanos : 0;
+        log.info("Импорт комментариев завершён: импортировано={}, отклонено={}, время={} мс, строк/с={}",
+                report.imported, report.rejected, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(rowsPerSecond));
+        return new CommentImportResultDto(report.imported, report.rejected,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rowsPerSecond, report.errors);
+    }
+
+    private void importChunk(List<Row> chunk, ImportReport report) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> authorIds = new HashSet<>();
+            Set<Long> itemIds = new HashSet<>();
+            for (Row row : chunk) {
+                if (row.comment == null) {
+                    continue;
+                }
+                if (row.comment.getAuthorId() != null) {
+                    authorIds.add(row.comment.getAuthorId());
+                }
+                if (row.comment.getItemId() != null) {
+                    itemIds.add(row.comment.getItemId());
+                }
+            }
+            Set<Long> existingAuthors = authorIds.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(userRepository.findIdsByIdIn(authorIds));
+            Set<Long> existingItems = itemIds.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(itemRepository.findIdsByIdIn(itemIds));
+
+            List<Comment> comments = new ArrayList<>(chunk.size());
+            Set<Long> touchedItems = new HashSet<>();
+            for (Row row : chunk) {
+                String error = validate(row.comment, existingAuthors, existingItems);
+                if (error != null) {
+                    report.reject(row.line, error);
+                    continue;
+                }
+                Comment comment = new Comment();
+                comment.setText(row.comment.getText());
+                comment.setItem(itemRepository.getReferenceById(row.comment.getItemId()));
+                comment.setAuthor(userRepository.getReferenceById(row.comment.getAuthorId()));
+                comment.setCreated(row.comment.getCreated());
+                comments.add(comment);
+                touchedItems.add(row.comment.getItemId());
+            }
+            commentRepository.saveAll(comments);
+            touchedItems.forEach(itemDetailCache::evict);
+            report.imported += comments.size();
+            importedCounter.increment(comments.size());
+        });
+    }
+
+    private static String validate(CommentImportDto comment, Set<Long> existingAuthors, Set<Long> existingItems) {
+        if (comment == null) {
+            return "Пустая строка";
+        }
+        if (comment.getText() == null || comment.getText().isBlank()) {
+            return "Текст комментария не может быть пустым";
+        }
+        if (comment.getText().length() > MAX_TEXT_LENGTH) {
+            return "Текст комментария длиннее " + MAX_TEXT_LENGTH + " символов";
+        }
+        if (comment.getAuthorId() == null || !existingAuthors.contains(comment.getAuthorId())) {
+            return "Пользователь с id " + comment.getAuthorId() + " не найден.";
+        }
+        if (comment.getItemId() == null || !existingItems.contains(comment.getItemId())) {
+            return "Вещь с id " + comment.getItemId() + " не найдена.";
+        }
+        return null;
+    }
+
+    private static final class Row {
+        private final long line;
+        private final CommentImportDto comment;
+
+        private Row(long line, CommentImportDto comment) {
+            this.line = line;
+            this.comment = comment;
+        }
+    }
+
+    private static final class ImportReport {
+        private final List<CommentImportErrorDto> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new CommentImportErrorDto(line, message));
+            }
+        }
+    }
+}
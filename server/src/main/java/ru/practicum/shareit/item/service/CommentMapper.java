@@ -1,11 +1,9 @@
 package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
-import java.util.List;
-import java.util.stream.Collectors;
-
 final class CommentMapper {
 
     private CommentMapper() {
@@ -20,9 +18,7 @@ final class CommentMapper {
         return dto;
     }
 
-    public static List<CommentDto> toListDto(List<Comment> comments) {
-        return comments.stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
+    public static CommentDto toCommentDto(CommentView comment) {
+        return new CommentDto(comment.getId(), comment.getText(), comment.getAuthorName(), comment.getCreated());
     }
 }
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Поиск по сгенерированной колонке items.search_vector (GIN) с ранжированием ts_rank.
+ * Подстроки, не совпадающие с целыми словами, находятся через ILIKE по триграммным индексам pg_trgm.
+ * Требует объектов из schema-postgresql.sql.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.type", havingValue = "full-text")
+public class FullTextItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, ItemSearchSort sort, int from, int size) {
+        String query = text.trim();
+        return sort == ItemSearchSort.NAME
+                ? itemRepository.fullTextSearchOrderByName(query, toLikePattern(query), from, size)
+                : itemRepository.fullTextSearch(query, toLikePattern(query), from, size);
+    }
+
+    @Override
+    public void itemSaved(Item item) {
+    }
+
+    @Override
+    public void itemDeleted(Long itemId) {
+    }
+
+    private static String toLikePattern(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,297 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Инвертированный индекс доступных вещей: триграмма названия или описания → отсортированный массив id.
+ * Кандидаты получаются пересечением списков триграмм запроса и проверяются по тексту в памяти,
+ * поэтому результат совпадает с поиском подстроки через LIKE. БД используется только для загрузки найденных вещей.
+ * Изменения вещей применяются после фиксации транзакции. Перестроение читает снимок и подменяет индекс под той же
+ * блокировкой записи, поэтому изменения, зафиксированные во время перестроения, применяются уже к новому индексу.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.item.search.type", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+    private static final int GRAM = 3;
+    private static final long[] EMPTY = new long[0];
+
+    private final ItemRepository itemRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, long[]> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long[] allIds = EMPTY;
+
+    public InMemoryItemSearchEngine(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            List<ItemSearchView> items = itemRepository.findAllAvailableForSearch();
+            Map<String, IdBuffer> buffers = new HashMap<>();
+            IdBuffer ids = new IdBuffer();
+            documents.clear();
+            for (ItemSearchView item : items) {
+                Document document = new Document(normalize(item.getName()), normalize(item.getDescription()));
+                documents.put(item.getId(), document);
+                ids.add(item.getId());
+                for (String gram : document.grams()) {
+                    buffers.computeIfAbsent(gram, key -> new IdBuffer()).add(item.getId());
+                }
+            }
+            postings.clear();
+            buffers.forEach((gram, buffer) -> postings.put(gram, buffer.toSortedArray()));
+            allIds = ids.toSortedArray();
+            log.info("Построен поисковый индекс вещей: вещей={}, триграмм={}", documents.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Item> search(String text, ItemSearchSort sort, int from, int size) {
+        List<Long> found = findIds(text, sort);
+        List<Long> ids = found.subList(Math.min(from, found.size()), (int) Math.min((long) from + size, found.size()));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(item -> item != null && Boolean.TRUE.equals(item.getAvailable()))
+                .toList();
+    }
+
+    @Override
+    public void itemSaved(Item item) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(item.getId());
+                if (Boolean.TRUE.equals(item.getAvailable())) {
+                    add(item.getId(), item.getName(), item.getDescription());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @Override
+    public void itemDeleted(Long itemId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(itemId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    List<Long> findIds(String text, ItemSearchSort sort) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            long[] candidates = query.length() < GRAM ? allIds : intersect(grams(query));
+            List<Long> nameMatches = new ArrayList<>();
+            List<Long> descriptionMatches = new ArrayList<>();
+            for (long id : candidates) {
+                Document document = documents.get(id);
+                if (document.name.contains(query)) {
+                    nameMatches.add(id);
+                } else if (document.description.contains(query)) {
+                    descriptionMatches.add(id);
+                }
+            }
+            nameMatches.addAll(descriptionMatches);
+            if (sort == ItemSearchSort.NAME) {
+                nameMatches.sort(Comparator.comparing((Long id) -> documents.get(id).name).thenComparing(id -> id));
+            }
+            return nameMatches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] intersect(Set<String> queryGrams) {
+        List<long[]> lists = new ArrayList<>();
+        for (String gram : queryGrams) {
+            long[] list = postings.get(gram);
+            if (list == null) {
+                return EMPTY;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        long[] result = lists.getFirst();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void add(Long id, String name, String description) {
+        Document document = new Document(normalize(name), normalize(description));
+        documents.put(id, document);
+        allIds = insert(allIds, id);
+        for (String gram : document.grams()) {
+            postings.merge(gram, new long[]{id}, (list, single) -> insert(list, id));
+        }
+    }
+
+    private void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        allIds = delete(allIds, id);
+        for (String gram : document.grams()) {
+            long[] list = delete(postings.get(gram), id);
+            if (list.length == 0) {
+                postings.remove(gram);
+            } else {
+                postings.put(gram, list);
+            }
+        }
+    }
+
+    private static long[] insert(long[] list, long id) {
+        int position = Arrays.binarySearch(list, id);
+        if (position >= 0) {
+            return list;
+        }
+        position = -position - 1;
+        long[] result = new long[list.length + 1];
+        System.arraycopy(list, 0, result, 0, position);
+        result[position] = id;
+        System.arraycopy(list, position, result, position + 1, list.length - position);
+        return result;
+    }
+
+    private static long[] delete(long[] list, long id) {
+        int position = Arrays.binarySearch(list, id);
+        if (position < 0) {
+            return list;
+        }
+        long[] result = new long[list.length - 1];
+        System.arraycopy(list, 0, result, 0, position);
+        System.arraycopy(list, position + 1, result, position, list.length - position - 1);
+        return result;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Растущий буфер id для первичного построения индекса: сортируется один раз в конце.
+     */
+    private static final class IdBuffer {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(ids, size);
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (unique == 0 || sorted[i] != sorted[unique - 1]) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            return unique == sorted.length ? sorted : Arrays.copyOf(sorted, unique);
+        }
+    }
+
+    private static final class Document {
+        private final String name;
+        private final String description;
+
+        private Document(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        Set<String> grams() {
+            Set<String> grams = InMemoryItemSearchEngine.grams(name);
+            grams.addAll(InMemoryItemSearchEngine.grams(description));
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+@Getter
+@AllArgsConstructor
+class ItemDetail {
+    private final Long ownerId;
+    private final ItemDto item;
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш собранной карточки вещи по id. Записи вытесняются по LRU и устаревают через ttl.
+ * Изменение вещи, комментария или подтверждённого бронирования удаляет запись после фиксации транзакции;
+ * результат загрузки, начавшейся до такого удаления, в кэш не попадает.
+ */
+@Slf4j
+@Component
+public class ItemDetailCache {
+    private final Duration ttl;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<Long, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ItemDetailCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.item.detail.cache.max-entries:10000}") int maxEntries,
+                           @Value("${shareit.item.detail.cache.ttl:PT1M}") Duration ttl) {
+        this.ttl = ttl;
+        this.hits = meterRegistry.counter("shareit.item.detail.cache", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.item.detail.cache", "result", "miss");
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        meterRegistry.gaugeMapSize("shareit.item.detail.cache.size", List.of(), entries);
+    }
+
+    ItemDetail get(Long itemId, Supplier<ItemDetail> loader) {
+        Entry entry = entries.get(itemId);
+        if (entry != null && !entry.isExpired(ttl)) {
+            hits.increment();
+            return entry.detail;
+        }
+        misses.increment();
+        long loadGeneration = generation.get();
+        ItemDetail detail = loader.get();
+        synchronized (entries) {
+            if (generation.get() == loadGeneration) {
+                entries.put(itemId, new Entry(System.nanoTime(), detail));
+            }
+        }
+        return detail;
+    }
+
+    public void evict(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(itemId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(itemId);
+            }
+        });
+    }
+
+    private void remove(Long itemId) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(itemId);
+        }
+        log.debug("Карточка вещи itemId={} удалена из кэша", itemId);
+    }
+
+    private static final class Entry {
+        private final long createdAt;
+        private final ItemDetail detail;
+
+        private Entry(long createdAt, ItemDetail detail) {
+            this.createdAt = createdAt;
+            this.detail = detail;
+        }
+
+        boolean isExpired(Duration ttl) {
+            return System.nanoTime() - createdAt > ttl.toNanos();
+        }
+    }
+}
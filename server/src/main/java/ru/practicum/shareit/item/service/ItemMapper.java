@@ -1,7 +1,8 @@
 package ru.practicum.shareit.item.service;
 
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.ItemLastNextBooking;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDetailRow;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemSaveDto;
 import ru.practicum.shareit.item.model.Item;
@@ -24,15 +25,17 @@ public final class ItemMapper {
     }
 
 
-    public static ItemDto toItemDto(Item item, Booking lastBooking, Booking nextBooking, List<CommentDto> comments) {
+    public static ItemDto toItemDto(Item item, ItemLastNextBooking bookings, List<CommentDto> comments,
+                                    Long commentCount) {
         return new ItemDto().toBuilder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .lastBooking(lastBooking != null ? lastBooking.getStart() : null)
-                .nextBooking(nextBooking != null ? nextBooking.getStart() : null)
+                .lastBooking(bookings != null ? bookings.getLastBookingStart() : null)
+                .nextBooking(bookings != null ? bookings.getNextBookingStart() : null)
                 .comments(comments)
+                .commentCount(commentCount)
                 .build();
     }
 
@@ -46,4 +49,24 @@ public final class ItemMapper {
                 .owner(owner)
                 .build();
     }
+
+    static ItemDetail toItemDetail(List<ItemDetailRow> rows) {
+        ItemDetailRow first = rows.getFirst();
+        List<CommentDto> comments = rows.stream()
+                .filter(row -> row.getCommentId() != null)
+                .map(row -> new CommentDto(row.getCommentId(), row.getCommentText(), row.getCommentAuthorName(),
+                        row.getCommentCreated()))
+                .toList();
+        ItemDto item = ItemDto.builder()
+                .id(first.getId())
+                .name(first.getName())
+                .description(first.getDescription())
+                .available(first.getAvailable())
+                .lastBooking(first.getLastBookingStart())
+                .nextBooking(first.getNextBookingStart())
+                .comments(comments)
+                .commentCount(first.getCommentCount())
+                .build();
+        return new ItemDetail(first.getOwnerId(), item);
+    }
 }
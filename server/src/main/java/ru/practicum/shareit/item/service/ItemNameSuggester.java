@@ -0,0 +1,171 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Подсказки по началу названия доступных вещей. Для каждого слова названия хранится ключ
+ * «это слово и всё после него», ключи лежат в отсортированном массиве, поэтому поиск подсказок —
+ * бинарный поиск начала диапазона и чтение первых совпадений. Массив неизменяем: при изменении вещи после
+ * фиксации транзакции её старые ключи отбрасываются, а новые вливаются за один проход, чтение идёт без блокировок.
+ * Перестроение читает снимок под той же блокировкой, что и изменения, поэтому они не теряются.
+ */
+@Slf4j
+@Component
+public class ItemNameSuggester {
+    private static final Comparator<Suggestion> ORDER = Comparator.comparing((Suggestion suggestion) -> suggestion.key)
+            .thenComparingLong(suggestion -> suggestion.id);
+
+    private final ItemRepository itemRepository;
+    private final Map<Long, String> names = new HashMap<>();
+    private volatile Suggestion[] suggestions = new Suggestion[0];
+
+    public ItemNameSuggester(ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ItemSearchView> items;
+        List<Suggestion> built = new ArrayList<>();
+        synchronized (names) {
+            items = itemRepository.findAllAvailableForSearch();
+            names.clear();
+            for (ItemSearchView item : items) {
+                names.put(item.getId(), item.getName());
+                built.addAll(suggestionsOf(item.getId(), item.getName()));
+            }
+            Suggestion[] sorted = built.toArray(new Suggestion[0]);
+            Arrays.sort(sorted, ORDER);
+            suggestions = sorted;
+        }
+        log.info("Построен индекс подсказок вещей: вещей={}, ключей={}", items.size(), built.size());
+    }
+
+    public List<ItemSuggestionDto> suggest(String prefix, int size) {
+        String query = normalize(prefix);
+        if (query.isEmpty() || size <= 0) {
+            return List.of();
+        }
+        Suggestion[] current = suggestions;
+        Map<Long, ItemSuggestionDto> result = new LinkedHashMap<>();
+        for (int i = lowerBound(current, query); i < current.length && result.size() < size; i++) {
+            Suggestion suggestion = current[i];
+            if (!suggestion.key.startsWith(query)) {
+                break;
+            }
+            result.putIfAbsent(suggestion.id, new ItemSuggestionDto(suggestion.id, suggestion.name));
+        }
+        return List.copyOf(result.values());
+    }
+
+    public void itemSaved(Item item) {
+        afterCommit(() -> replace(item.getId(), Boolean.TRUE.equals(item.getAvailable()) ? item.getName() : null));
+    }
+
+    public void itemDeleted(Long itemId) {
+        afterCommit(() -> replace(itemId, null));
+    }
+
+    private void replace(Long itemId, String name) {
+        synchronized (names) {
+            String previous = name == null ? names.remove(itemId) : names.put(itemId, name);
+            if (previous == null && name == null || name != null && name.equals(previous)) {
+                return;
+            }
+            Suggestion[] added = name == null ? new Suggestion[0] : suggestionsOf(itemId, name).toArray(new Suggestion[0]);
+            Arrays.sort(added, ORDER);
+            suggestions = merge(suggestions, itemId, added);
+        }
+    }
+
+    private static Suggestion[] merge(Suggestion[] current, long removedId, Suggestion[] added) {
+        Suggestion[] result = new Suggestion[current.length + added.length];
+        int size = 0;
+        int j = 0;
+        for (Suggestion suggestion : current) {
+            if (suggestion.id == removedId) {
+                continue;
+            }
+            while (j < added.length && ORDER.compare(added[j], suggestion) < 0) {
+                result[size++] = added[j++];
+            }
+            result[size++] = suggestion;
+        }
+        while (j < added.length) {
+            result[size++] = added[j++];
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private static List<Suggestion> suggestionsOf(Long id, String name) {
+        String[] words = normalize(name).split(" ");
+        List<Suggestion> result = new ArrayList<>(words.length);
+        for (int i = 0; i < words.length; i++) {
+            if (!words[i].isEmpty()) {
+                result.add(new Suggestion(String.join(" ", Arrays.copyOfRange(words, i, words.length)), id, name));
+            }
+        }
+        return result;
+    }
+
+    private static int lowerBound(Suggestion[] suggestions, String query) {
+        int low = 0;
+        int high = suggestions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (suggestions[middle].key.compareTo(query) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Suggestion {
+        private final String key;
+        private final long id;
+        private final String name;
+
+        private Suggestion(String key, long id, String name) {
+            this.key = key;
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Кэш результатов поиска вещей по нормализованному тексту запроса, сортировке и странице.
+ * Записи вытесняются по LRU и устаревают через ttl. Изменение вещи увеличивает версию кэша
+ * после фиксации транзакции, и все записи с прежней версией перестают использоваться.
+ */
+@Slf4j
+@Component
+public class ItemSearchCache {
+    private final Duration ttl;
+    private final AtomicLong version = new AtomicLong();
+    private final Map<Key, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.item.search.cache.max-entries:1000}") int maxEntries,
+                           @Value("${shareit.item.search.cache.ttl:PT1M}") Duration ttl) {
+        this.ttl = ttl;
+        this.hits = meterRegistry.counter("shareit.item.search.cache", "result", "hit");
+        this.misses = meterRegistry.counter("shareit.item.search.cache", "result", "miss");
+        this.evictions = meterRegistry.counter("shareit.item.search.cache.evictions");
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                boolean evict = size() > maxEntries;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        });
+        meterRegistry.gaugeMapSize("shareit.item.search.cache.size", List.of(), entries);
+    }
+
+    public List<ItemDto> get(String text, ItemSearchSort sort, int from, int size, Function<String, List<ItemDto>> loader) {
+        Key key = new Key(text.trim().toLowerCase(Locale.ROOT), sort, from, size);
+        long currentVersion = version.get();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == currentVersion && !entry.isExpired(ttl)) {
+            hits.increment();
+            return entry.items;
+        }
+        if (entry != null) {
+            entries.remove(key);
+            evictions.increment();
+        }
+        misses.increment();
+        List<ItemDto> items = List.copyOf(loader.apply(key.text));
+        entries.put(key, new Entry(currentVersion, System.nanoTime(), items));
+        return items;
+    }
+
+    public void invalidate() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpVersion();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bumpVersion();
+            }
+        });
+    }
+
+    private void bumpVersion() {
+        long newVersion = version.incrementAndGet();
+        log.debug("Кэш поиска вещей сброшен, версия {}", newVersion);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class Key {
+        private final String text;
+        private final ItemSearchSort sort;
+        private final int from;
+        private final int size;
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final long createdAt;
+        private final List<ItemDto> items;
+
+        private Entry(long version, long createdAt, List<ItemDto> items) {
+            this.version = version;
+            this.createdAt = createdAt;
+            this.items = items;
+        }
+
+        boolean isExpired(Duration ttl) {
+            return System.nanoTime() - createdAt > ttl.toNanos();
+        }
+    }
+}
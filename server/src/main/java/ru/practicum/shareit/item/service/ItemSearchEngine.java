@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+
+import java.util.List;
+
+public interface ItemSearchEngine {
+    List<Item> search(String text, ItemSearchSort sort, int from, int size);
+
+    void itemSaved(Item item);
+
+    void itemDeleted(Long itemId);
+}
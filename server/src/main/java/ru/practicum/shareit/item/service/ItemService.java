@@ -2,24 +2,39 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentSaveDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemSaveDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.ItemSearchSort;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
-    ItemDto getItem(Long itemId);
+    ItemDto getItem(Long userId, Long itemId);
 
     ItemDto createItem(Long userId, ItemSaveDto itemSaveDto);
 
     CommentDto addComment(Long userId, Long itemId, CommentSaveDto commentDto);
 
-    List<ItemDto> searchItems(String text);
+    List<CommentDto> getComments(Long itemId, LocalDateTime createdBefore, Long idBefore, Integer size);
+
+    List<ItemDto> searchItems(String text, ItemSearchSort sort, Integer from, Integer size);
+
+    List<ItemSuggestionDto> suggestItems(String prefix, Integer size);
+
+    long exportItems(String text, Consumer<ItemDto> consumer);
 
     ItemDto updateItem(ItemSaveDto itemSaveDto, Long userId, Long itemId);
 
     void deleteItem(User user, Long itemId);
 
-    List<ItemDto> getItemsWithBookings(Long ownerId);
+    List<ItemDto> getItemsWithBookings(Long ownerId, Integer from, Integer size);
+
+    ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
+    List<ItemAvailabilityDto> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to);
 }
@@ -4,29 +4,51 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.ItemLastNextBooking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.AvailabilityIndex;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentSaveDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemCommentCount;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemDetailRow;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemSaveDto;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestNotifier;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.item.service.ItemMapper.toItem;
 import static ru.practicum.shareit.item.service.ItemMapper.toItemDto;
@@ -35,60 +57,89 @@ import static ru.practicum.shareit.item.service.ItemMapper.toItemDto;
 @Service
 @AllArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final Duration DEFAULT_AVAILABILITY_WINDOW = Duration.ofDays(90);
+    private static final Duration MAX_AVAILABILITY_WINDOW = Duration.ofDays(365);
+    private static final int LATEST_COMMENTS_LIMIT = 10;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepo;
+    private final AvailabilityIndex availabilityIndex;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemDetailCache itemDetailCache;
+    private final CommentEligibilityMemo commentEligibilityMemo;
+    private final ItemRequestNotifier itemRequestNotifier;
 
     @Override
     @Transactional(readOnly = true)
-    public ItemDto getItem(Long itemId) {
-        log.info("Получение вещи по id = {}", itemId);
-        Item item = validateItemExists(itemId);
-
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-        List<CommentDto> commentDtos = CommentMapper.toListDto(comments);
-
-        ItemDto itemDto = toItemDto(item);
-        itemDto.setComments(commentDtos);
+    public ItemDto getItem(Long userId, Long itemId) {
+        log.info("Получение вещи по id = {} пользователем с id = {}", itemId, userId);
+        ItemDetail detail = itemDetailCache.get(itemId, () -> loadItemDetail(itemId));
+        ItemDto itemDto = Objects.equals(detail.getOwnerId(), userId)
+                ? detail.getItem().toBuilder().build()
+                : detail.getItem().toBuilder().lastBooking(null).nextBooking(null).build();
         log.info("Получена вещь - {}", itemDto);
         return itemDto;
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemDto> getItemsWithBookings(Long ownerId) {
-        log.info("Получение всех вещей владельца с id = {}", ownerId);
+    public List<ItemDto> getItemsWithBookings(Long ownerId, Integer from, Integer size) {
+        log.info("Получение вещей владельца с id = {}, from={}, size={}", ownerId, from, size);
 
-        List<Item> items = itemRepository.findAllByOwnerId(ownerId);
+        List<Item> items = itemRepository.findPageByOwnerId(ownerId, from, size);
 
         if (items.isEmpty()) {
             return List.of();
         }
 
         LocalDateTime now = LocalDateTime.now();
+        List<Long> itemIds = items.stream().map(Item::getId).toList();
 
-        Map<Long, Booking> lastBookings = bookingRepository.findLastBookingsByOwner(ownerId, now)
-                .stream().collect(Collectors.toMap(b -> b.getItem().getId(), b -> b));
-        Map<Long, Booking> nextBookings = bookingRepository.findNextBookingsByOwner(ownerId, now)
-                .stream().collect(Collectors.toMap(b -> b.getItem().getId(), b -> b));
+        Map<Long, ItemLastNextBooking> bookingsByItemId = bookingRepository
+                .findLastNextByItemIdInAndStatus(itemIds, BookingStatus.APPROVED, now).stream()
+                .collect(Collectors.toMap(ItemLastNextBooking::getItemId, Function.identity()));
 
-        List<Comment> comments = commentRepository.findByItem_Owner_Id(ownerId);
-
-        Map<Long, List<CommentDto>> commentsByItemId = comments.stream()
-                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+        Map<Long, List<CommentDto>> commentsByItemId = commentRepository
+                .findLatestByItemIdIn(itemIds, LATEST_COMMENTS_LIMIT).stream()
+                .collect(Collectors.groupingBy(CommentView::getItemId,
                         Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        Map<Long, Long> commentCounts = commentRepository.countByItemIdIn(itemIds).stream()
+                .collect(Collectors.toMap(ItemCommentCount::getItemId, ItemCommentCount::getCount));
 
         return items.stream()
                 .map(item -> {
                     Long itemId = item.getId();
                     List<CommentDto> commentsForItem = commentsByItemId.getOrDefault(itemId, List.of());
-                    return toItemDto(item, lastBookings.get(itemId), nextBookings.get(itemId), commentsForItem);
+                    return toItemDto(item, bookingsByItemId.get(itemId), commentsForItem,
+                            commentCounts.getOrDefault(itemId, 0L));
                 })
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<CommentDto> getComments(Long itemId, LocalDateTime createdBefore, Long idBefore, Integer size) {
+        log.info("Получение комментариев вещи с id = {}, createdBefore={}, idBefore={}, size={}",
+                itemId, createdBefore, idBefore, size);
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь с id = " + itemId + " не найдена");
+        }
+        if ((createdBefore == null) != (idBefore == null)) {
+            throw new ValidationException("Параметры createdBefore и idBefore задаются вместе");
+        }
+        List<CommentView> comments = createdBefore == null
+                ? commentRepository.findLatestByItemId(itemId, size)
+                : commentRepository.findByItemIdBefore(itemId, createdBefore, idBefore, size);
+        return comments.stream()
+                .map(CommentMapper::toCommentDto)
+                .toList();
+    }
+
     @Override
     @Transactional
     public ItemDto createItem(Long userId, ItemSaveDto itemSaveDto) {
@@ -104,6 +155,12 @@ public class ItemServiceImpl implements ItemService {
         newItem.setOwner(owner);
         newItem.setRequest(request);
         Item savedItem = itemRepository.save(newItem);
+        itemSearchEngine.itemSaved(savedItem);
+        itemSearchCache.invalidate();
+        itemNameSuggester.itemSaved(savedItem);
+        if (request != null) {
+            itemRequestNotifier.itemAnswered(request, savedItem);
+        }
         log.info("Добавлена вещь пользователем {}, вещь - {}", userId, savedItem);
         log.info("Сохраненная вещь с id = {}", savedItem.getId());
         return toItemDto(savedItem);
@@ -113,34 +170,66 @@ public class ItemServiceImpl implements ItemService {
     @Transactional
     public CommentDto addComment(Long userId, Long itemId, CommentSaveDto commentSaveDto) {
         log.info("Добавление комментария пользователем с id = {} для вещи с id = {} ", userId, itemId);
-        User user = validateUser(userId);
-        Item item = validateItemExists(itemId);
-        List<Booking> bookings = bookingRepository
-                .findByItemIdAndBookerIdAndStatusAndEndIsBefore(itemId, userId, BookingStatus.APPROVED, LocalDateTime.now());
-
-        if (!bookings.isEmpty()) {
-            Comment comment = new Comment();
-            comment.setText(commentSaveDto.getText());
-            comment.setItem(item);
-            comment.setAuthor(user);
-            comment.setCreated(LocalDateTime.now());
-            return CommentMapper.toCommentDto(commentRepository.save(comment));
-        } else {
+        Optional<String> authorName = commentEligibilityMemo.isEligible(userId, itemId)
+                && itemRepository.existsById(itemId)
+                ? userRepository.findNameById(userId)
+                : bookingRepository.findBookerNameByCompletedBooking(itemId, userId, BookingStatus.APPROVED,
+                        LocalDateTime.now());
+        if (authorName.isEmpty()) {
+            commentEligibilityMemo.bookingReleased(userId, itemId);
+            validateUser(userId);
+            validateItemExists(itemId);
             throw new ValidationException("Пользователь не бронировал эту вещь");
         }
-
+        commentEligibilityMemo.markEligible(userId, itemId);
+
+        Comment comment = new Comment();
+        comment.setText(commentSaveDto.getText());
+        comment.setItem(itemRepository.getReferenceById(itemId));
+        comment.setAuthor(userRepository.getReferenceById(userId));
+        comment.setCreated(LocalDateTime.now());
+        Comment savedComment = commentRepository.save(comment);
+        itemDetailCache.evict(itemId);
+        return new CommentDto(savedComment.getId(), savedComment.getText(), authorName.get(), savedComment.getCreated());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<ItemDto> searchItems(String text) {
+    public List<ItemDto> searchItems(String text, ItemSearchSort sort, Integer from, Integer size) {
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        log.info("Поиск вещей по тексту: {}", text);
-        return itemRepository.searchItems(text).stream()
+        log.info("Поиск вещей по тексту: {}, sort={}, from={}, size={}", text, sort, from, size);
+        return itemSearchCache.get(text, sort, from, size, query -> itemSearchEngine.search(query, sort, from, size).stream()
                 .map(ItemMapper::toItemDto)
-                .toList();
+                .toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportItems(String text, Consumer<ItemDto> consumer) {
+        if (text == null || text.isBlank()) {
+            return 0;
+        }
+        long count = 0;
+        try (Stream<ItemSearchView> items = itemRepository.streamAvailableByText(text)) {
+            Iterator<ItemSearchView> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                ItemSearchView item = iterator.next();
+                consumer.accept(new ItemDto(item.getId(), item.getName(), item.getDescription(), true));
+                count++;
+            }
+        }
+        log.info("Выгружено вещей по тексту {}: {}", text, count);
+        return count;
+    }
+
+    @Override
+    public List<ItemSuggestionDto> suggestItems(String prefix, Integer size) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        return itemNameSuggester.suggest(prefix, size);
     }
 
     @Override
@@ -154,9 +243,20 @@ public class ItemServiceImpl implements ItemService {
 
         validateItemOwnership(existingItem, userId);
 
+        String previousName = existingItem.getName();
+        String previousDescription = existingItem.getDescription();
+        Boolean previousAvailable = existingItem.getAvailable();
         updateFields(existingItem, itemDto);
 
         Item updatedItem = itemRepository.save(existingItem);
+        itemSearchEngine.itemSaved(updatedItem);
+        itemNameSuggester.itemSaved(updatedItem);
+        itemDetailCache.evict(itemId);
+        if (!Objects.equals(previousName, updatedItem.getName())
+                || !Objects.equals(previousDescription, updatedItem.getDescription())
+                || !Objects.equals(previousAvailable, updatedItem.getAvailable())) {
+            itemSearchCache.invalidate();
+        }
 
         log.info("Вещь с id = {} успешно обновлена", updatedItem.getId());
         return toItemDto(updatedItem);
@@ -170,6 +270,85 @@ public class ItemServiceImpl implements ItemService {
         Item item = validateItemExists(itemId);
         validateItemOwnership(item, user.getId());
         itemRepository.delete(item);
+        availabilityIndex.evict(itemId);
+        itemSearchEngine.itemDeleted(itemId);
+        itemSearchCache.invalidate();
+        itemNameSuggester.itemDeleted(itemId);
+        itemDetailCache.evict(itemId);
+        commentEligibilityMemo.itemDeleted(itemId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        return getAvailability(List.of(itemId), from, to).getFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemAvailabilityDto> getAvailability(List<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime windowStart = from == null ? LocalDateTime.now() : from;
+        LocalDateTime windowEnd = to == null ? windowStart.plus(DEFAULT_AVAILABILITY_WINDOW) : to;
+        log.info("Получение календаря доступности вещей {} с {} по {}", itemIds, windowStart, windowEnd);
+        if (!windowStart.isBefore(windowEnd)) {
+            throw new ValidationException("Начало периода должно быть раньше его окончания.");
+        }
+        if (Duration.between(windowStart, windowEnd).compareTo(MAX_AVAILABILITY_WINDOW) > 0) {
+            throw new ValidationException("Период не может превышать " + MAX_AVAILABILITY_WINDOW.toDays() + " дней.");
+        }
+
+        Set<Long> existingIds = new HashSet<>(itemRepository.findIdsByIdIn(itemIds));
+        itemIds.stream()
+                .filter(itemId -> !existingIds.contains(itemId))
+                .findFirst()
+                .ifPresent(itemId -> {
+                    throw new NotFoundException("Вещь с id = " + itemId + " не найдена");
+                });
+
+        Map<Long, List<BookingInterval>> approved = availabilityIndex.findApprovedIntervals(existingIds, windowStart, windowEnd);
+        return itemIds.stream()
+                .distinct()
+                .map(itemId -> toAvailabilityDto(itemId, windowStart, windowEnd, approved.getOrDefault(itemId, List.of())))
+                .toList();
+    }
+
+    private ItemAvailabilityDto toAvailabilityDto(Long itemId, LocalDateTime from, LocalDateTime to,
+                                                  List<BookingInterval> approved) {
+        List<AvailabilityIntervalDto> busy = new ArrayList<>();
+        approved.stream()
+                .sorted(Comparator.comparing(BookingInterval::getStart))
+                .forEach(interval -> {
+                    LocalDateTime start = interval.getStart().isBefore(from) ? from : interval.getStart();
+                    LocalDateTime end = interval.getEnd().isAfter(to) ? to : interval.getEnd();
+                    AvailabilityIntervalDto last = busy.isEmpty() ? null : busy.getLast();
+                    if (last != null && !start.isAfter(last.getEnd())) {
+                        if (end.isAfter(last.getEnd())) {
+                            last.setEnd(end);
+                        }
+                    } else {
+                        busy.add(new AvailabilityIntervalDto(start, end));
+                    }
+                });
+
+        List<AvailabilityIntervalDto> free = new ArrayList<>();
+        LocalDateTime freeStart = from;
+        for (AvailabilityIntervalDto interval : busy) {
+            if (freeStart.isBefore(interval.getStart())) {
+                free.add(new AvailabilityIntervalDto(freeStart, interval.getStart()));
+            }
+            freeStart = interval.getEnd();
+        }
+        if (freeStart.isBefore(to)) {
+            free.add(new AvailabilityIntervalDto(freeStart, to));
+        }
+
+        return ItemAvailabilityDto.builder()
+                .itemId(itemId)
+                .from(from)
+                .to(to)
+                .busy(busy)
+                .free(free)
+                .build();
     }
 
     private User validateUser(Long userId) {
@@ -182,6 +361,15 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new NotFoundException("Вещь с id = " + itemId + " не найдена"));
     }
 
+    private ItemDetail loadItemDetail(Long itemId) {
+        List<ItemDetailRow> rows = itemRepository.findDetailById(itemId, BookingStatus.APPROVED, LocalDateTime.now(),
+                LATEST_COMMENTS_LIMIT);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Вещь с id = " + itemId + " не найдена");
+        }
+        return ItemMapper.toItemDetail(rows);
+    }
+
     private void validateItemOwnership(Item item, Long userId) {
         if (!item.getOwner().getId().equals(userId)) {
             throw new ForbiddenException("Доступ запрещён. Вы не являетесь владельцем вещи с id = " + item.getId());
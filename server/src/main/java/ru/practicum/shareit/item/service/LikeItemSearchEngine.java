@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search.type", havingValue = "like", matchIfMissing = true)
+public class LikeItemSearchEngine implements ItemSearchEngine {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, ItemSearchSort sort, int from, int size) {
+        return sort == ItemSearchSort.NAME
+                ? itemRepository.searchItemsOrderByName(text, from, size)
+                : itemRepository.searchItems(text, from, size);
+    }
+
+    @Override
+    public void itemSaved(Item item) {
+    }
+
+    @Override
+    public void itemDeleted(Long itemId) {
+    }
+}
@@ -2,9 +2,12 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestSaveDto;
+import ru.practicum.shareit.request.service.ItemRequestNotifier;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
@@ -16,6 +19,7 @@ import java.util.List;
 public class ItemRequestController {
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
     private final ItemRequestService itemRequestService;
+    private final ItemRequestNotifier itemRequestNotifier;
 
     @PostMapping
     public ItemRequestDto createItemRequest(@RequestHeader(HEADER_USER_ID) Long userId,
@@ -30,9 +34,17 @@ public class ItemRequestController {
 
     @GetMapping("/all")
     public List<ItemRequestDto> getAllItemRequests(
-            @RequestHeader(HEADER_USER_ID) Long userId
+            @RequestHeader(HEADER_USER_ID) Long userId,
+            @RequestParam(defaultValue = "0") Integer from,
+            @RequestParam(defaultValue = "10") Integer size
     ) {
-        return itemRequestService.getAllItemRequests(userId);
+        return itemRequestService.getAllItemRequests(userId, from, size);
+    }
+
+    @GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader(HEADER_USER_ID) Long userId) {
+        log.info("Подписка на ответы на запросы пользователя с id = {}", userId);
+        return itemRequestNotifier.subscribe(userId);
     }
 
     @GetMapping("/{requestId}")
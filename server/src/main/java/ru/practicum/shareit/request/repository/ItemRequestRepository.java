@@ -1,14 +1,25 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Long userId);
+    @Query("select r from ItemRequest r join fetch r.requester u " +
+            "where u.id = :userId " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(@Param("userId") Long userId);
 
-    List<ItemRequest> findAllByRequester_IdNotInOrderByCreatedDesc(List<Long> userIds);
+    @Query("select r from ItemRequest r join fetch r.requester u " +
+            "where u.id <> :userId " +
+            "order by r.created desc, r.id desc " +
+            "limit :size offset :from")
+    List<ItemRequest> findPageByRequesterIdNot(@Param("userId") Long userId,
+                                               @Param("from") int from,
+                                               @Param("size") int size);
 
 }
@@ -26,6 +26,16 @@ final class ItemRequestMapper {
         );
     }
 
+    public static ItemRequestDto toRequestDto(ItemRequest request, List<Item> items) {
+        return new ItemRequestDto(
+                request.getId(),
+                request.getDescription(),
+                toUserDto(request.getRequester()),
+                request.getCreated(),
+                toItemResponseDto(items)
+        );
+    }
+
     public static ItemRequest toRequest(ItemRequestSaveDto requestSaveDto) {
         return new ItemRequest(
                 null,
@@ -35,15 +45,6 @@ final class ItemRequestMapper {
         );
     }
 
-    public static List<ItemRequestDto> toRequestDto(List<ItemRequest> requests) {
-        if (requests == null) {
-            return new ArrayList<>();
-        }
-        return requests.stream()
-                .map(ItemRequestMapper::toRequestDto)
-                .collect(Collectors.toList());
-    }
-
     public static List<ItemResponseToRequestDto> toItemResponseDto(List<Item> items) {
         if (items == null) {
             return new ArrayList<>();
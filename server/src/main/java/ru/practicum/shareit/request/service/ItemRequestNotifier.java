@@ -0,0 +1,137 @@
+package ru.practicum.shareit.request.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestAnswerDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Внутрипроцессная рассылка ответов на запросы вещей. Автор запроса подписывается на SSE-поток,
+ * а создание вещи с requestId после фиксации транзакции отправляет событие всем его подписчикам.
+ * Отправка идёт в отдельном потоке рассылки, чтобы медленный подписчик не задерживал поток, создавший вещь.
+ */
+@Slf4j
+@Component
+public class ItemRequestNotifier {
+    private static final String EVENT_NAME = "item";
+
+    private final Duration timeout;
+    private final Executor executor;
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Autowired
+    public ItemRequestNotifier(MeterRegistry meterRegistry,
+                               @Value("${shareit.request.notifications.timeout:PT10M}") Duration timeout) {
+        this(meterRegistry, timeout, Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "item-request-notifier");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public ItemRequestNotifier(MeterRegistry meterRegistry, Duration timeout, Executor executor) {
+        this.timeout = timeout;
+        this.executor = executor;
+        meterRegistry.gauge("shareit.request.notifications.subscribers", List.of(), subscriberCount);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        subscribers.compute(userId, (id, emitters) -> {
+            Set<SseEmitter> userEmitters = emitters == null ? new CopyOnWriteArraySet<>() : emitters;
+            userEmitters.add(emitter);
+            return userEmitters;
+        });
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(userId, emitter));
+        emitter.onTimeout(() -> unsubscribe(userId, emitter));
+        emitter.onError(e -> unsubscribe(userId, emitter));
+        log.debug("Пользователь с id = {} подписался на ответы на запросы", userId);
+        return emitter;
+    }
+
+    public void itemAnswered(ItemRequest request, Item item) {
+        Long requesterId = request.getRequester().getId();
+        ItemRequestAnswerDto answer = new ItemRequestAnswerDto(request.getId(), item.getId(), item.getName(),
+                item.getOwner().getId());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(requesterId, answer);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatch(requesterId, answer);
+            }
+        });
+    }
+
+    private void dispatch(Long requesterId, ItemRequestAnswerDto answer) {
+        if (!subscribers.containsKey(requesterId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> send(requesterId, answer));
+        } catch (RejectedExecutionException e) {
+            log.warn("Ответ на запрос с id = {} не отправлен: рассылка остановлена", answer.getRequestId());
+        }
+    }
+
+    private void send(Long requesterId, ItemRequestAnswerDto answer) {
+        Set<SseEmitter> emitters = subscribers.get(requesterId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(EVENT_NAME)
+                        .id(String.valueOf(answer.getItemId()))
+                        .data(answer));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Не удалось отправить ответ на запрос пользователю с id = {}: {}", requesterId, e.getMessage());
+                unsubscribe(requesterId, emitter);
+                emitter.completeWithError(e);
+            }
+        }
+        log.info("Ответ на запрос с id = {} отправлен {} подписчикам", answer.getRequestId(), emitters.size());
+    }
+
+    private void unsubscribe(Long userId, SseEmitter emitter) {
+        subscribers.computeIfPresent(userId, (id, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -10,7 +10,7 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAllUserItemRequestsWithItems(Long userId);
 
-    List<ItemRequestDto> getAllItemRequests(Long userId);
+    List<ItemRequestDto> getAllItemRequests(Long userId, Integer from, Integer size);
 
     ItemRequestDto getItemRequest(Long requestId);
 }
@@ -15,6 +15,8 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.request.service.ItemRequestMapper.*;
 
@@ -44,15 +46,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     public List<ItemRequestDto> getAllUserItemRequestsWithItems(Long userId) {
         log.info("Получение всех запросов пользователя с id - {}", userId);
         List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(userId);
-        return ItemRequestMapper.toRequestDto(itemRequests);
-
+        return toRequestDtosWithItems(itemRequests);
     }
 
     @Override
-    public List<ItemRequestDto> getAllItemRequests(Long userId) {
-        log.info("Получение всех запросов кроме пользователя с id - {}", userId);
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequester_IdNotInOrderByCreatedDesc(List.of(userId));
-        return ItemRequestMapper.toRequestDto(itemRequests);
+    public List<ItemRequestDto> getAllItemRequests(Long userId, Integer from, Integer size) {
+        log.info("Получение запросов кроме пользователя с id - {}, from={}, size={}", userId, from, size);
+        List<ItemRequest> itemRequests = itemRequestRepository.findPageByRequesterIdNot(userId, from, size);
+        return toRequestDtosWithItems(itemRequests);
     }
 
     @Override
@@ -67,4 +68,18 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         log.info("Найден запрос {}", itemRequestDto);
         return itemRequestDto;
     }
+
+    private List<ItemRequestDto> toRequestDtosWithItems(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Item>> itemsByRequestId = itemRepository.findAllByRequestIdIn(itemRequests.stream()
+                        .map(ItemRequest::getId)
+                        .toList())
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return itemRequests.stream()
+                .map(request -> toRequestDto(request, itemsByRequestId.getOrDefault(request.getId(), List.of())))
+                .toList();
+    }
 }
@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.service.CommentEligibilityMemo;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserSaveDto;
 import ru.practicum.shareit.user.model.User;
@@ -21,6 +22,7 @@ import static ru.practicum.shareit.user.service.UserMapper.toUserDto;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository repository;
+    private final CommentEligibilityMemo commentEligibilityMemo;
 
     @Override
     @Transactional(readOnly = true)
@@ -67,6 +69,7 @@ public class UserServiceImpl implements UserService {
         log.info("Удаление пользователя с id = {} ", id);
         validateUserExists(id);
         repository.deleteById(id);
+        commentEligibilityMemo.userDeleted(id);
         log.info("Пользователь с id = {} успешно удалён", id);
     }
 
@@ -3,6 +3,8 @@ drop table IF EXISTS users,
                      requests,
                      bookings,
                      comments;
+DROP SEQUENCE IF EXISTS booking_seq;
+DROP SEQUENCE IF EXISTS comment_seq;
 
 CREATE TABLE IF NOT EXISTS users (
     id int GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -35,11 +37,26 @@ CREATE TABLE IF NOT EXISTS bookings (
     status varchar(10) NOT NULL
 );
 
+CREATE SEQUENCE IF NOT EXISTS booking_seq START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS items_owner_id_idx ON items (owner_id);
+CREATE INDEX IF NOT EXISTS items_request_id_idx ON items (request_id);
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS requests_requestor_created_idx ON requests (requestor_id, created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_end_idx ON bookings (item_id, end_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_booker_status_end_idx ON bookings (item_id, booker_id, status, end_date);
+
 
 CREATE TABLE IF NOT EXISTS comments (
     id int GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     text varchar(400) NOT NULL,
     item_id int NOT NULL REFERENCES items(id) ON DELETE CASCADE,
     author_id int NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    created timestamp without time zone
+    created timestamp without time zone NOT NULL
 );
+
+CREATE SEQUENCE IF NOT EXISTS comment_seq START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS comments_item_created_idx ON comments (item_id, created DESC, id DESC);
@@ -12,6 +12,8 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
@@ -21,6 +23,7 @@ import ru.practicum.shareit.user.dto.UserDto;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -97,6 +100,24 @@ class BookingControllerTest {
         verify(service, times(1)).createBooking(eq(userId), any(BookingRequestDto.class));
     }
 
+    @Test
+    void testCreateBookings() throws Exception {
+        BookingRequestDto bookingSaveDto = new BookingRequestDto(1L, LocalDateTime.now(), LocalDateTime.now().plusMinutes(1));
+        String bookingSaveDtosJson = objectMapper.writeValueAsString(List.of(bookingSaveDto));
+
+        when(service.createBookings(eq(userId), any()))
+                .thenReturn(List.of(bookingExpected));
+        mockMvc.perform(post("/bookings/batch")
+                        .header(HEADER_USER_ID, String.valueOf(userId))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookingSaveDtosJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(bookingExpected.getId()))
+                .andExpect(jsonPath("$[0].status").value(BookingStatus.WAITING.name()));
+
+        verify(service, times(1)).createBookings(eq(userId), any());
+    }
+
     @Test
     void testUpdateBooking() throws Exception {
         boolean approved = true;
@@ -118,6 +139,43 @@ class BookingControllerTest {
         verify(service, times(1)).updateBookingStatus(eq(userId), eq(bookingId), eq(approved));
     }
 
+    @Test
+    void testUpdateBookingStatuses() throws Exception {
+        List<Long> bookingIds = List.of(1L, 2L);
+        List<BookingStatusResultDto> results = List.of(
+                new BookingStatusResultDto(1L, BookingStatus.APPROVED, null),
+                new BookingStatusResultDto(2L, null, "Бронирование с id 2 не найдено."));
+
+        when(service.updateBookingStatuses(eq(userId), eq(bookingIds), eq(true)))
+                .thenReturn(results);
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .header(HEADER_USER_ID, String.valueOf(userId))
+                        .param("approved", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookingIds)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(BookingStatus.APPROVED.name()))
+                .andExpect(jsonPath("$[1].error").value("Бронирование с id 2 не найдено."));
+
+        verify(service, times(1)).updateBookingStatuses(eq(userId), eq(bookingIds), eq(true));
+    }
+
+    @Test
+    void testGetBookingSummaryForOwner() throws Exception {
+        when(service.getBookingSummaryForOwner(userId))
+                .thenReturn(new BookingSummaryDto(6L, 1L, 2L, 3L, 1L, 0L));
+
+        mockMvc.perform(get("/bookings/owner/summary")
+                        .header(HEADER_USER_ID, String.valueOf(userId)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.all", is(6)))
+                .andExpect(jsonPath("$.future", is(3)))
+                .andExpect(jsonPath("$.rejected", is(0)));
+
+        verify(service, times(1)).getBookingSummaryForOwner(userId);
+    }
+
     @Test
     void testGetBookingById() throws Exception {
         String path = "/bookings/" + bookingId;
@@ -138,7 +196,7 @@ class BookingControllerTest {
     void testGetBookingsByState() throws Exception {
         BookingState state = BookingState.REJECTED;
 
-        when(service.getBookingsByState(eq(userId), eq(state)))
+        when(service.getBookingsByState(eq(userId), eq(state), isNull(), isNull(), eq(10)))
                 .thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/bookings")
@@ -149,7 +207,28 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json("[]"));
 
-        verify(service, times(1)).getBookingsByState(eq(userId), eq(state));
+        verify(service, times(1)).getBookingsByState(eq(userId), eq(state), isNull(), isNull(), eq(10));
+    }
+
+    @Test
+    void testGetBookingsByStateWithCursor() throws Exception {
+        BookingState state = BookingState.ALL;
+        LocalDateTime cursorStart = LocalDateTime.of(2025, 1, 20, 10, 10, 10);
+
+        when(service.getBookingsByState(eq(userId), eq(state), eq(cursorStart), eq(5L), eq(2)))
+                .thenReturn(List.of(bookingExpected));
+
+        mockMvc.perform(get("/bookings")
+                        .header(HEADER_USER_ID, String.valueOf(userId))
+                        .param("state", String.valueOf(state))
+                        .param("cursorStart", cursorStart.toString())
+                        .param("cursorId", "5")
+                        .param("size", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+
+        verify(service, times(1)).getBookingsByState(eq(userId), eq(state), eq(cursorStart), eq(5L), eq(2));
     }
 
     @Test
@@ -159,7 +238,7 @@ class BookingControllerTest {
         List<BookingDto> expectedBookings = List.of(bookingExpected);
         String expectedBookingsJson = objectMapper.writeValueAsString(expectedBookings);
 
-        when(service.getBookingsForOwner(eq(userId), eq(state)))
+        when(service.getBookingsForOwner(eq(userId), eq(state), isNull(), isNull(), eq(10)))
                 .thenReturn(expectedBookings);
         mockMvc.perform(get(path)
                         .header(HEADER_USER_ID, userId)
@@ -169,6 +248,6 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$.length()", is(1)))
                 .andExpect(content().json(expectedBookingsJson));
 
-        verify(service, times(1)).getBookingsForOwner(eq(userId), eq(state));
+        verify(service, times(1)).getBookingsForOwner(eq(userId), eq(state), isNull(), isNull(), eq(10));
     }
 }
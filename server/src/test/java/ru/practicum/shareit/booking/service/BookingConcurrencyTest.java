@@ -0,0 +1,182 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest
+class BookingConcurrencyTest {
+    private static final int REQUESTS = 1000;
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @AfterEach
+    void tearDown() {
+        if (item != null) {
+            bookingRepository.deleteAll(bookingRepository.findAll().stream()
+                    .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                    .toList());
+            itemRepository.deleteById(item.getId());
+        }
+        if (owner != null) {
+            userRepository.deleteById(owner.getId());
+        }
+        if (booker != null) {
+            userRepository.deleteById(booker.getId());
+        }
+    }
+
+    @Test
+    void testConcurrentOverlappingBookings_ApproveExactlyOne() throws Exception {
+        saveOwnerBookerAndItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<Callable<BookingDto>> creations = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            LocalDateTime bookingStart = start.plusMinutes(i % 60);
+            creations.add(() -> bookingService.createBooking(booker.getId(),
+                    new BookingRequestDto(item.getId(), bookingStart, bookingStart.plusHours(2))));
+        }
+        long createStarted = System.nanoTime();
+        List<BookingDto> created = runAll(creations);
+        logThroughput("создание", createStarted);
+        assertEquals(REQUESTS, created.size());
+
+        List<Callable<BookingDto>> approvals = created.stream()
+                .map(booking -> (Callable<BookingDto>) () -> {
+                    try {
+                        return bookingService.updateBookingStatus(owner.getId(), booking.getId(), true);
+                    } catch (ValidationException e) {
+                        return null;
+                    }
+                })
+                .toList();
+        long approveStarted = System.nanoTime();
+        List<BookingDto> approved = runAll(approvals).stream()
+                .filter(booking -> booking != null)
+                .toList();
+        logThroughput("подтверждение", approveStarted);
+
+        assertEquals(1, approved.size());
+        assertEquals(1, bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                .filter(booking -> booking.getStatus() == BookingStatus.APPROVED)
+                .count());
+    }
+
+    @Test
+    void testConcurrentApproveAndReject_KeepIndexInSyncWithStatus() throws Exception {
+        saveOwnerBookerAndItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            LocalDateTime bookingStart = start.plusDays(round);
+            BookingDto booking = bookingService.createBooking(booker.getId(),
+                    new BookingRequestDto(item.getId(), bookingStart, bookingStart.plusHours(2)));
+
+            runAll(List.of(
+                    () -> bookingService.updateBookingStatus(owner.getId(), booking.getId(), true),
+                    () -> bookingService.updateBookingStatus(owner.getId(), booking.getId(), false)));
+
+            BookingStatus status = bookingRepository.findById(booking.getId()).orElseThrow().getStatus();
+            assertEquals(status == BookingStatus.APPROVED,
+                    availabilityIndex.hasApprovedOverlap(item.getId(), bookingStart, bookingStart.plusHours(2)),
+                    "Индекс расходится со статусом " + status + " в раунде " + round);
+        }
+    }
+
+    @Test
+    void testConcurrentApprovalsOfSameBooking_AllSucceed() throws Exception {
+        saveOwnerBookerAndItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            LocalDateTime bookingStart = start.plusDays(round);
+            BookingDto booking = bookingService.createBooking(booker.getId(),
+                    new BookingRequestDto(item.getId(), bookingStart, bookingStart.plusHours(2)));
+            List<Callable<BookingDto>> approvals = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                approvals.add(() -> bookingService.updateBookingStatus(owner.getId(), booking.getId(), true));
+            }
+
+            List<BookingDto> results = runAll(approvals);
+
+            assertTrue(results.stream().allMatch(result -> result.getStatus() == BookingStatus.APPROVED));
+            assertEquals(BookingStatus.APPROVED,
+                    bookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+        }
+    }
+
+    private List<BookingDto> runAll(List<Callable<BookingDto>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<BookingDto> results = new ArrayList<>();
+            for (Future<BookingDto> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void saveOwnerBookerAndItem() {
+        owner = userRepository.save(new User(null, "Owner", "owner" + UUID.randomUUID() + "@email.com"));
+        booker = userRepository.save(new User(null, "Booker", "booker" + UUID.randomUUID() + "@email.com"));
+        item = itemRepository.save(Item.builder()
+                .name("Drill")
+                .description("Popular drill")
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+
+    private void logThroughput(String operation, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+        log.info("Конкурентное {}: {} запросов за {} с ({} запросов/с)",
+                operation, REQUESTS, String.format("%.3f", seconds), String.format("%.0f", REQUESTS / seconds));
+    }
+}
@@ -5,11 +5,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -26,10 +31,12 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.CommentEligibilityMemo;
+import ru.practicum.shareit.item.service.ItemDetailCache;
 import ru.practicum.shareit.user.repository.UserRepository;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -52,6 +59,15 @@ class BookingServiceImplTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ItemDetailCache itemDetailCache;
+
+    @Mock
+    private CommentEligibilityMemo commentEligibilityMemo;
+
     private final User user1 = new User(1L, "User1", "user1@email.com");
     private final User user2 = new User(2L, "User2", "user2@email.com");
     private final UserDto userDto = new UserDto(1L, "User", "user@email.com");
@@ -86,7 +102,7 @@ class BookingServiceImplTest {
         Booking savedBooking = new Booking(1L, bookingRequestDto.getStart(), bookingRequestDto.getEnd(), item1, user1, BookingStatus.WAITING);
 
         Mockito.when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-        Mockito.when(itemRepository.findById(item1.getId())).thenReturn(Optional.of(item1));
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
         Mockito.when(bookingRepository.save(Mockito.any(Booking.class))).thenReturn(savedBooking);
 
         BookingDto result = bookingService.createBooking(user1.getId(), bookingRequestDto);
@@ -99,7 +115,7 @@ class BookingServiceImplTest {
         assertEquals(savedBooking.getBooker().getId(), result.getBooker().getId());
 
         Mockito.verify(userRepository).findById(user1.getId());
-        Mockito.verify(itemRepository).findById(item1.getId());
+        Mockito.verify(itemRepository).findByIdForUpdate(item1.getId());
         Mockito.verify(bookingRepository).save(Mockito.any(Booking.class));
     }
 
@@ -108,7 +124,7 @@ class BookingServiceImplTest {
         BookingRequestDto bookingRequestDto = new BookingRequestDto(item1.getId(), LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2));
 
         Mockito.when(userRepository.findById(user1.getId())).thenReturn(Optional.of(user1));
-        Mockito.when(itemRepository.findById(item1.getId())).thenReturn(Optional.of(item1));
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
 
         ValidationException exception = assertThrows(ValidationException.class, () ->
                 bookingService.createBooking(user1.getId(), bookingRequestDto));
@@ -122,7 +138,7 @@ class BookingServiceImplTest {
 
 
         Mockito.when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
-        Mockito.when(itemRepository.findById(item2.getId())).thenReturn(Optional.of(item2));
+        Mockito.when(itemRepository.findByIdForUpdate(item2.getId())).thenReturn(Optional.of(item2));
 
         ValidationException exception = assertThrows(ValidationException.class, () ->
                 bookingService.createBooking(user2.getId(), bookingRequestDto));
@@ -136,7 +152,7 @@ class BookingServiceImplTest {
         BookingRequestDto bookingRequestDto = new BookingRequestDto(item1.getId(), LocalDateTime.now().plusDays(2), LocalDateTime.now().plusDays(1));
 
         Mockito.when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
-        Mockito.when(itemRepository.findById(item1.getId())).thenReturn(Optional.of(item1));
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
 
         ValidationException exception = assertThrows(ValidationException.class, () ->
                 bookingService.createBooking(user2.getId(), bookingRequestDto));
@@ -149,8 +165,8 @@ class BookingServiceImplTest {
         BookingRequestDto bookingRequestDto = new BookingRequestDto(item1.getId(), LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(3));
 
         Mockito.when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
-        Mockito.when(itemRepository.findById(item1.getId())).thenReturn(Optional.of(item1));
-        Mockito.when(bookingRepository.existsByItemIdAndStatusAndEndAfterAndStartBefore(item1.getId(), BookingStatus.APPROVED, bookingRequestDto.getStart(), bookingRequestDto.getEnd()))
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+        Mockito.when(availabilityIndex.hasApprovedOverlap(item1.getId(), bookingRequestDto.getStart(), bookingRequestDto.getEnd()))
                 .thenReturn(true);
 
         ValidationException exception = assertThrows(ValidationException.class, () ->
@@ -165,13 +181,80 @@ class BookingServiceImplTest {
         Booking updatedBooking = new Booking(1L, booking.getStart(), booking.getEnd(), item1, user1, BookingStatus.REJECTED);
 
         Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-        Mockito.when(bookingRepository.save(Mockito.any(Booking.class))).thenReturn(updatedBooking);
+        Mockito.when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item1.getId()));
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+        Mockito.when(bookingRepository.saveAndFlush(Mockito.any(Booking.class))).thenReturn(updatedBooking);
 
         BookingDto result = bookingService.updateBookingStatus(item1.getOwner().getId(), booking.getId(), false);
 
         assertNotNull(result);
         assertEquals(BookingStatus.REJECTED, result.getStatus());
-        Mockito.verify(bookingRepository).save(Mockito.any(Booking.class));
+        Mockito.verify(bookingRepository).saveAndFlush(Mockito.any(Booking.class));
+        Mockito.verify(itemRepository).findByIdForUpdate(item1.getId());
+        Mockito.verifyNoInteractions(availabilityIndex);
+    }
+
+    @Test
+    void testUpdateBookingStatus_UpdateAvailabilityIndex_whenOwnerApproves() {
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item1, user2, BookingStatus.WAITING);
+
+        Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item1.getId()));
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+        Mockito.when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
+
+        BookingDto result = bookingService.updateBookingStatus(item1.getOwner().getId(), booking.getId(), true);
+
+        assertEquals(BookingStatus.APPROVED, result.getStatus());
+        Mockito.verify(availabilityIndex).bookingApproved(booking);
+    }
+
+    @Test
+    void testUpdateBookingStatus_ReleaseInterval_whenApprovedBookingIsRejected() {
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item1, user2, BookingStatus.APPROVED);
+
+        Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item1.getId()));
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+        Mockito.when(bookingRepository.saveAndFlush(booking)).thenReturn(booking);
+
+        bookingService.updateBookingStatus(item1.getOwner().getId(), booking.getId(), false);
+
+        Mockito.verify(itemRepository).findByIdForUpdate(item1.getId());
+        Mockito.verify(availabilityIndex).bookingReleased(booking);
+        Mockito.verify(commentEligibilityMemo).bookingReleased(user2.getId(), item1.getId());
+    }
+
+    @Test
+    void testUpdateBookingStatus_ThrowValidationException_whenApprovedBookingOverlaps() {
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item1, user2, BookingStatus.WAITING);
+
+        Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item1.getId()));
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+        Mockito.when(availabilityIndex.hasApprovedOverlap(item1.getId(), booking.getStart(), booking.getEnd()))
+                .thenReturn(true);
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> bookingService.updateBookingStatus(item1.getOwner().getId(), booking.getId(), true));
+
+        assertEquals("Бронирование пересекается с уже существующим подтвержденным бронированием.", exception.getMessage());
+        assertEquals(BookingStatus.WAITING, booking.getStatus());
+        Mockito.verify(bookingRepository, Mockito.never()).saveAndFlush(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void testUpdateBookingStatus_ThrowConflictException_whenConstraintIsViolated() {
+        Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item1, user2, BookingStatus.WAITING);
+
+        Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item1.getId()));
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
+        Mockito.when(bookingRepository.saveAndFlush(Mockito.any(Booking.class)))
+                .thenThrow(new DataIntegrityViolationException("bookings_approved_no_overlap"));
+
+        assertThrows(ConflictException.class,
+                () -> bookingService.updateBookingStatus(item1.getOwner().getId(), booking.getId(), true));
     }
 
     @Test
@@ -179,6 +262,8 @@ class BookingServiceImplTest {
         Booking booking = new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item1, user1, BookingStatus.WAITING);
 
         Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
+        Mockito.when(bookingRepository.findItemIdById(booking.getId())).thenReturn(Optional.of(item1.getId()));
+        Mockito.when(itemRepository.findByIdForUpdate(item1.getId())).thenReturn(Optional.of(item1));
 
         ValidationException exception = assertThrows(
                 ValidationException.class,
@@ -186,7 +271,7 @@ class BookingServiceImplTest {
         );
 
         assertEquals("Только владелец может подтвердить или отклонить бронирование.", exception.getMessage());
-        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any(Booking.class));
+        Mockito.verify(bookingRepository, Mockito.never()).saveAndFlush(Mockito.any(Booking.class));
     }
 
     @Test
@@ -198,7 +283,16 @@ class BookingServiceImplTest {
                 () -> bookingService.updateBookingStatus(item1.getOwner().getId(), 99L, true)
         );
 
-        Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any(Booking.class));
+        Mockito.verify(bookingRepository, Mockito.never()).saveAndFlush(Mockito.any(Booking.class));
+    }
+
+    @Test
+    void testGetBookingSummary_ThrowNotFoundException_whenUserNotFound() {
+        Mockito.when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookingService.getBookingSummary(99L));
+
+        Mockito.verify(bookingRepository, Mockito.never()).countStatesByBookerId(Mockito.anyLong(), Mockito.any());
     }
 
 
@@ -229,23 +323,46 @@ class BookingServiceImplTest {
                 new Booking(2L, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4), item2, user1, BookingStatus.APPROVED)
         );
 
-        Mockito.when(bookingRepository.findAllByBookerIdOrderByStartDesc(user1.getId()))
-                .thenReturn(bookings);
+        Mockito.when(bookingRepository.findAllByBookerIdOrderByStartDescIdDesc(user1.getId(), ScrollPosition.keyset(), Limit.of(10)))
+                .thenReturn(toWindow(bookings));
 
-        List<BookingDto> result = bookingService.getBookingsByState(user1.getId(), BookingState.ALL);
+        List<BookingDto> result = bookingService.getBookingsByState(user1.getId(), BookingState.ALL, null, null, 10);
 
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals(bookings.get(0).getId(), result.get(0).getId());
         assertEquals(bookings.get(1).getId(), result.get(1).getId());
 
-        Mockito.verify(bookingRepository).findAllByBookerIdOrderByStartDesc(user1.getId());
+        Mockito.verify(bookingRepository).findAllByBookerIdOrderByStartDescIdDesc(user1.getId(), ScrollPosition.keyset(), Limit.of(10));
+    }
+
+    @Test
+    void testGetBookingsByState_PassKeysetPosition_whenCursorIsGiven() {
+        LocalDateTime cursorStart = LocalDateTime.now().plusDays(5);
+        ScrollPosition position = ScrollPosition.forward(Map.of("start", cursorStart, "id", 7L));
+        List<Booking> bookings = List.of(
+                new Booking(3L, LocalDateTime.now().plusDays(4), LocalDateTime.now().plusDays(6), item1, user2, BookingStatus.WAITING)
+        );
+
+        Mockito.when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(user2.getId(), BookingStatus.WAITING, position, Limit.of(1)))
+                .thenReturn(toWindow(bookings));
+
+        List<BookingDto> result = bookingService.getBookingsByState(user2.getId(), BookingState.WAITING, cursorStart, 7L, 1);
+
+        assertEquals(1, result.size());
+        assertEquals(3L, result.getFirst().getId());
+    }
+
+    @Test
+    void testGetBookingsByState_ThrowValidationException_whenCursorIsIncomplete() {
+        assertThrows(ValidationException.class,
+                () -> bookingService.getBookingsByState(user1.getId(), BookingState.ALL, LocalDateTime.now(), null, 10));
+        Mockito.verifyNoInteractions(bookingRepository);
     }
 
 
     @Test
     void testGetBookingsForOwner_ReturnBookings_whenStateIsFuture() {
-        List<Long> itemIds = List.of(item1.getId(), item2.getId());
         List<Booking> bookings = List.of(
                 new Booking(1L, LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2), item1, user2, BookingStatus.WAITING),
                 new Booking(2L, LocalDateTime.now().plusDays(3), LocalDateTime.now().plusDays(4), item2, user2, BookingStatus.APPROVED)
@@ -253,13 +370,11 @@ class BookingServiceImplTest {
 
         Mockito.when(userRepository.findById(user1.getId()))
                 .thenReturn(Optional.of(user1));
+        Mockito.when(bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(Mockito.eq(user1.getId()), Mockito.any(LocalDateTime.class),
+                        Mockito.eq(ScrollPosition.keyset()), Mockito.eq(Limit.of(10))))
+                .thenReturn(toWindow(bookings));
 
-        Mockito.when(itemRepository.findAllByOwnerId(user1.getId()))
-                .thenReturn(List.of(item1, item2));
-        Mockito.when(bookingRepository.findAllByItemIdInAndStartAfterOrderByStartDesc(Mockito.eq(itemIds), Mockito.any(LocalDateTime.class)))
-                .thenReturn(bookings);
-
-        List<BookingDto> result = bookingService.getBookingsForOwner(user1.getId(), BookingState.FUTURE);
+        List<BookingDto> result = bookingService.getBookingsForOwner(user1.getId(), BookingState.FUTURE, null, null, 10);
 
         assertNotNull(result);
         assertEquals(2, result.size());
@@ -267,24 +382,33 @@ class BookingServiceImplTest {
         assertEquals(bookings.get(1).getId(), result.get(1).getId());
 
         Mockito.verify(userRepository).findById(user1.getId());
-        Mockito.verify(itemRepository).findAllByOwnerId(user1.getId());
-        Mockito.verify(bookingRepository).findAllByItemIdInAndStartAfterOrderByStartDesc(Mockito.eq(itemIds), Mockito.any(LocalDateTime.class));
+        Mockito.verify(bookingRepository).findAllByItemOwnerIdAndStartAfterOrderByStartDescIdDesc(Mockito.eq(user1.getId()), Mockito.any(LocalDateTime.class),
+                Mockito.eq(ScrollPosition.keyset()), Mockito.eq(Limit.of(10)));
+        Mockito.verifyNoInteractions(itemRepository);
     }
 
     @Test
-    void testGetBookingsForOwner_ReturnEmptyList_whenNoItemsExist() {
+    void testGetBookingsForOwner_ReturnEmptyList_whenNoBookingsExist() {
         Mockito.when(userRepository.findById(user1.getId()))
                 .thenReturn(Optional.of(user1));
+        Mockito.when(bookingRepository.findAllByItemOwnerIdOrderByStartDescIdDesc(user1.getId(), ScrollPosition.keyset(), Limit.of(10)))
+                .thenReturn(toWindow(List.of()));
 
-        Mockito.when(itemRepository.findAllByOwnerId(user1.getId())).thenReturn(Collections.emptyList());
-
-        List<BookingDto> result = bookingService.getBookingsForOwner(user1.getId(), BookingState.ALL);
+        List<BookingDto> result = bookingService.getBookingsForOwner(user1.getId(), BookingState.ALL, null, null, 10);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
 
         Mockito.verify(userRepository).findById(user1.getId());
-        Mockito.verify(itemRepository).findAllByOwnerId(user1.getId());
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void testGetBookingsForOwner_ThrowNotFoundException_whenOwnerNotFound() {
+        Mockito.when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class,
+                () -> bookingService.getBookingsForOwner(99L, BookingState.ALL, null, null, 10));
         Mockito.verifyNoInteractions(bookingRepository);
     }
 
@@ -308,8 +432,11 @@ class BookingServiceImplTest {
     void testGetAllUserBookingsWaiting() {
         Long userId = 20L;
         BookingState state = BookingState.WAITING;
+        Mockito.when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
+                        Mockito.eq(userId), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(toWindow(List.of()));
 
-        List<BookingDto> bookings = bookingService.getBookingsByState(userId, state);
+        List<BookingDto> bookings = bookingService.getBookingsByState(userId, state, null, null, 10);
         bookings.forEach(booking -> assertThat(booking, allOf(
                 hasProperty("booker", allOf(
                         hasProperty("id", equalTo(userId))
@@ -322,8 +449,11 @@ class BookingServiceImplTest {
     void testGetAllUserBookingsRejected() {
         Long userId = 20L;
         BookingState state = BookingState.REJECTED;
+        Mockito.when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDescIdDesc(
+                        Mockito.eq(userId), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(toWindow(List.of()));
 
-        List<BookingDto> bookings = bookingService.getBookingsByState(userId, state);
+        List<BookingDto> bookings = bookingService.getBookingsByState(userId, state, null, null, 10);
 
         bookings.forEach(booking -> assertThat(booking, allOf(
                 hasProperty("booker", allOf(
@@ -337,8 +467,11 @@ class BookingServiceImplTest {
     void testGetAllUserBookingsCurrent() {
         Long userId = 20L;
         BookingState state = BookingState.CURRENT;
+        Mockito.when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDescIdDesc(
+                        Mockito.eq(userId), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(toWindow(List.of()));
 
-        List<BookingDto> bookings = bookingService.getBookingsByState(userId, state);
+        List<BookingDto> bookings = bookingService.getBookingsByState(userId, state, null, null, 10);
 
         bookings.forEach(booking -> assertThat(booking, allOf(
                 hasProperty("booker", allOf(
@@ -347,4 +480,8 @@ class BookingServiceImplTest {
                 hasProperty("status", notNullValue()))
         ));
     }
+
+    private static Window<Booking> toWindow(List<Booking> bookings) {
+        return Window.from(bookings, i -> ScrollPosition.offset(i));
+    }
 }
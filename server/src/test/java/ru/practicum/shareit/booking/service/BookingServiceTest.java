@@ -1,22 +1,33 @@
 package ru.practicum.shareit.booking.service;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingRequestDto;
+import ru.practicum.shareit.booking.dto.BookingStatusResultDto;
+import ru.practicum.shareit.booking.dto.BookingSummaryDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,6 +46,12 @@ public class BookingServiceTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void testCreateBooking_ShouldSaveBookingToDatabase() {
         User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
@@ -145,4 +162,215 @@ public class BookingServiceTest {
 
         assertEquals("Бронирование пересекается с уже существующим подтвержденным бронированием.", exception.getMessage());
     }
+
+    @Test
+    void testGetBookingsByState_ReturnNextPage_whenCursorIsGiven() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Test Item")
+                .description("Test Description")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Booking first = bookingRepository.save(new Booking(null, start.plusDays(2), start.plusDays(3), item, booker, BookingStatus.WAITING));
+        Booking second = bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker, BookingStatus.WAITING));
+        Booking third = bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker, BookingStatus.WAITING));
+
+        List<BookingDto> firstPage = bookingService.getBookingsByState(booker.getId(), BookingState.FUTURE, null, null, 2);
+        assertEquals(List.of(first.getId(), third.getId()), firstPage.stream().map(BookingDto::getId).toList());
+
+        BookingDto last = firstPage.getLast();
+        List<BookingDto> secondPage = bookingService.getBookingsByState(booker.getId(), BookingState.FUTURE,
+                last.getStart(), last.getId(), 2);
+        assertEquals(List.of(second.getId()), secondPage.stream().map(BookingDto::getId).toList());
+
+        List<BookingDto> ownerPage = bookingService.getBookingsForOwner(owner.getId(), BookingState.ALL,
+                last.getStart(), last.getId(), 10);
+        assertEquals(List.of(second.getId()), ownerPage.stream().map(BookingDto::getId).toList());
+    }
+
+    @Test
+    void testCreateBookings_SaveAllBookings_whenItemsAreFree() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        List<Item> kit = saveItems(owner, "Camera", "Lens", "Tripod");
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+        List<BookingDto> created = bookingService.createBookings(booker.getId(), kit.stream()
+                .map(item -> new BookingRequestDto(item.getId(), start, start.plusDays(2)))
+                .toList());
+
+        assertEquals(kit.stream().map(Item::getId).toList(),
+                created.stream().map(bookingDto -> bookingDto.getItem().getId()).toList());
+        assertTrue(created.stream().allMatch(bookingDto -> bookingDto.getStatus() == BookingStatus.WAITING));
+        assertTrue(created.stream().allMatch(bookingDto -> bookingRepository.existsById(bookingDto.getId())));
+    }
+
+    @Test
+    void testCreateBookings_SaveNothing_whenOneItemIsAlreadyBooked() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        List<Item> kit = saveItems(owner, "Camera", "Lens", "Tripod");
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        bookingRepository.save(new Booking(null, start.plusDays(1), start.plusDays(3), kit.get(2), owner, BookingStatus.APPROVED));
+        long bookingsBefore = bookingRepository.count();
+
+        ValidationException exception = assertThrows(ValidationException.class, () ->
+                bookingService.createBookings(booker.getId(), kit.stream()
+                        .map(item -> new BookingRequestDto(item.getId(), start, start.plusDays(2)))
+                        .toList()));
+
+        assertEquals("Бронирование вещи с id " + kit.get(2).getId()
+                + " пересекается с уже существующим подтвержденным бронированием.", exception.getMessage());
+        assertEquals(bookingsBefore, bookingRepository.count());
+    }
+
+    @Test
+    void testUpdateBookingStatuses_ApplyPerBookingResults_whenBatchIsMixed() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        User stranger = userRepository.save(new User(null, "Stranger", "stranger@email.com"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Test Item")
+                .description("Test Description")
+                .available(true)
+                .owner(owner)
+                .build());
+        Item strangerItem = itemRepository.save(Item.builder()
+                .name("Stranger Item")
+                .description("Test Description")
+                .available(true)
+                .owner(stranger)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        Booking first = bookingRepository.save(new Booking(null, start, start.plusDays(2), item, booker, BookingStatus.WAITING));
+        Booking overlapping = bookingRepository.save(new Booking(null, start.plusDays(1), start.plusDays(3), item, booker, BookingStatus.WAITING));
+        Booking later = bookingRepository.save(new Booking(null, start.plusDays(5), start.plusDays(6), item, booker, BookingStatus.WAITING));
+        Booking foreign = bookingRepository.save(new Booking(null, start, start.plusDays(1), strangerItem, booker, BookingStatus.WAITING));
+        Long missingId = 999_999L;
+
+        List<BookingStatusResultDto> results = bookingService.updateBookingStatuses(owner.getId(),
+                List.of(first.getId(), overlapping.getId(), later.getId(), foreign.getId(), missingId, first.getId()), true);
+
+        assertEquals(List.of(first.getId(), overlapping.getId(), later.getId(), foreign.getId(), missingId),
+                results.stream().map(BookingStatusResultDto::getBookingId).toList());
+        assertEquals(BookingStatus.APPROVED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(BookingStatus.WAITING, results.get(1).getStatus());
+        assertNotNull(results.get(1).getError());
+        assertEquals(BookingStatus.APPROVED, results.get(2).getStatus());
+        assertNotNull(results.get(3).getError());
+        assertNotNull(results.get(4).getError());
+
+        entityManager.clear();
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(first.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(overlapping.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(later.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(foreign.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testGetBookingSummary_MatchListSizes_withSingleStatement() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Test Item")
+                .description("Test Description")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(1), now.plusDays(1), item, booker, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), item, booker, BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker, BookingStatus.WAITING));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), item, booker, BookingStatus.REJECTED));
+        entityManager.flush();
+
+        long[] statements = new long[2];
+        BookingSummaryDto[] summaries = new BookingSummaryDto[2];
+        statements[0] = countStatements(() -> summaries[0] = bookingService.getBookingSummary(booker.getId()));
+        statements[1] = countStatements(() -> summaries[1] = bookingService.getBookingSummaryForOwner(owner.getId()));
+
+        assertEquals(1, statements[0]);
+        assertEquals(new BookingSummaryDto(4L, 1L, 1L, 2L, 1L, 1L), summaries[0]);
+        assertEquals(summaries[0], summaries[1]);
+        for (BookingState state : BookingState.values()) {
+            assertEquals(bookingService.getBookingsByState(booker.getId(), state, null, null, 100).size(),
+                    countFor(summaries[0], state));
+        }
+    }
+
+    @Test
+    void testBookingLists_UseConstantStatementCount_whenBookingsGrow() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+
+        saveBookingsWithDistinctGraphs(owner, booker, 1);
+        long bookerStatementsForOne = countStatements(() ->
+                bookingService.getBookingsByState(booker.getId(), BookingState.ALL, null, null, 100));
+        long ownerStatementsForOne = countStatements(() ->
+                bookingService.getBookingsForOwner(owner.getId(), BookingState.ALL, null, null, 100));
+
+        saveBookingsWithDistinctGraphs(owner, booker, 20);
+        long bookerStatementsForMany = countStatements(() ->
+                assertEquals(21, bookingService.getBookingsByState(booker.getId(), BookingState.ALL, null, null, 100).size()));
+        long ownerStatementsForMany = countStatements(() ->
+                assertEquals(21, bookingService.getBookingsForOwner(owner.getId(), BookingState.ALL, null, null, 100).size()));
+
+        assertEquals(1, bookerStatementsForOne);
+        assertEquals(bookerStatementsForOne, bookerStatementsForMany);
+        assertEquals(ownerStatementsForOne, ownerStatementsForMany);
+    }
+
+    private static long countFor(BookingSummaryDto summary, BookingState state) {
+        return switch (state) {
+            case ALL -> summary.getAll();
+            case CURRENT -> summary.getCurrent();
+            case PAST -> summary.getPast();
+            case FUTURE -> summary.getFuture();
+            case WAITING -> summary.getWaiting();
+            case REJECTED -> summary.getRejected();
+        };
+    }
+
+    private List<Item> saveItems(User owner, String... names) {
+        return Arrays.stream(names)
+                .map(name -> itemRepository.save(Item.builder()
+                        .name(name)
+                        .description("Test Description")
+                        .available(true)
+                        .owner(owner)
+                        .build()))
+                .toList();
+    }
+
+    private void saveBookingsWithDistinctGraphs(User owner, User booker, int count) {
+        for (int i = 0; i < count; i++) {
+            User requester = userRepository.save(new User(null, "Requester", "requester" + UUID.randomUUID() + "@email.com"));
+            ItemRequest request = itemRequestRepository.save(new ItemRequest(null, "Request", requester, LocalDateTime.now()));
+            Item item = itemRepository.save(Item.builder()
+                    .name("Item")
+                    .description("Description")
+                    .available(true)
+                    .owner(owner)
+                    .request(request)
+                    .build());
+            bookingRepository.save(new Booking(null, LocalDateTime.now().plusDays(i + 1), LocalDateTime.now().plusDays(i + 2),
+                    item, booker, BookingStatus.WAITING));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long countStatements(Runnable action) {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        action.run();
+        entityManager.clear();
+        return statistics.getPrepareStatementCount();
+    }
 }
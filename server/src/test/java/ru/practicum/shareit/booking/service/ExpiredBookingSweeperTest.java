@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class ExpiredBookingSweeperTest {
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testSweep_CancelExpiredWaitingBookingsInBatches() {
+        User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.save(Item.builder()
+                .name("Test Item")
+                .description("Test Description")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> expired = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expired.add(bookingRepository.save(new Booking(null, now.minusDays(i + 1), now.plusDays(1), item, booker,
+                    BookingStatus.WAITING)));
+        }
+        Booking future = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                BookingStatus.WAITING));
+        Booking approved = bookingRepository.save(new Booking(null, now.minusDays(10), now.minusDays(9), item, booker,
+                BookingStatus.APPROVED));
+        entityManager.flush();
+        long alreadyExpired = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.WAITING)
+                .filter(booking -> booking.getStart() != null && booking.getStart().isBefore(now))
+                .count();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExpiredBookingSweeper sweeper = new ExpiredBookingSweeper(bookingRepository, meterRegistry, 2, 100);
+
+        int swept = sweeper.sweep();
+
+        entityManager.clear();
+        assertEquals(alreadyExpired, swept);
+        expired.forEach(booking -> assertEquals(BookingStatus.CANCELED,
+                bookingRepository.findById(booking.getId()).orElseThrow().getStatus()));
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(future.getId()).orElseThrow().getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingRepository.findById(approved.getId()).orElseThrow().getStatus());
+        assertEquals(alreadyExpired, meterRegistry.counter("shareit.booking.sweeper.swept").count());
+        assertEquals(1, meterRegistry.timer("shareit.booking.sweeper.duration").count());
+    }
+}
@@ -0,0 +1,260 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingItemInterval;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryAvailabilityIndexTest {
+    private static final Long ITEM_ID = 1L;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private InMemoryAvailabilityIndex index;
+    private LocalDateTime base;
+    private final Item item = Item.builder().id(ITEM_ID).build();
+
+    @BeforeEach
+    void setUp() {
+        index = new InMemoryAvailabilityIndex(bookingRepository, 100, Duration.ofMinutes(5));
+        base = LocalDateTime.now().plusDays(1).withNano(0);
+    }
+
+    @Test
+    void testHasApprovedOverlap_AnswerFromLoadedIntervals() {
+        stubApproved(interval(1L, base, base.plusHours(2)), interval(2L, base.plusHours(5), base.plusHours(6)));
+
+        assertTrue(index.hasApprovedOverlap(ITEM_ID, base.plusHours(1), base.plusHours(3)));
+        assertTrue(index.hasApprovedOverlap(ITEM_ID, base.plusHours(4), base.plusHours(7)));
+        assertFalse(index.hasApprovedOverlap(ITEM_ID, base.plusHours(2), base.plusHours(5)));
+        assertFalse(index.hasApprovedOverlap(ITEM_ID, base.plusHours(6), base.plusHours(8)));
+
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdAndStatusAndEndAfterOrderByStartAsc(eq(ITEM_ID), eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void testHasApprovedOverlap_DetectLongIntervalHiddenByLaterStart() {
+        stubApproved(interval(1L, base, base.plusDays(10)), interval(2L, base.plusDays(1), base.plusDays(2)));
+
+        assertTrue(index.hasApprovedOverlap(ITEM_ID, base.plusDays(5), base.plusDays(6)));
+    }
+
+    @Test
+    void testBookingApprovedAndReleased_KeepIndexInSync() {
+        stubApproved();
+        assertFalse(index.hasApprovedOverlap(ITEM_ID, base, base.plusHours(1)));
+
+        Booking booking = new Booking(5L, base, base.plusHours(2), item, null, BookingStatus.APPROVED);
+        index.bookingApproved(booking);
+        assertTrue(index.hasApprovedOverlap(ITEM_ID, base.plusHours(1), base.plusHours(3)));
+
+        index.bookingReleased(booking);
+        assertFalse(index.hasApprovedOverlap(ITEM_ID, base.plusHours(1), base.plusHours(3)));
+    }
+
+    @Test
+    void testBookingApproved_ApplyOnlyAfterCommit() {
+        stubApproved();
+        assertFalse(index.hasApprovedOverlap(ITEM_ID, base, base.plusHours(1)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.bookingApproved(new Booking(5L, base, base.plusHours(2), item, null, BookingStatus.APPROVED));
+            assertFalse(index.hasApprovedOverlap(ITEM_ID, base.plusHours(1), base.plusHours(3)));
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(index.hasApprovedOverlap(ITEM_ID, base.plusHours(1), base.plusHours(3)));
+    }
+
+    @Test
+    void testBookingApproved_DiscardOnRollback() {
+        stubApproved();
+        assertFalse(index.hasApprovedOverlap(ITEM_ID, base, base.plusHours(1)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.bookingApproved(new Booking(5L, base, base.plusHours(2), item, null, BookingStatus.APPROVED));
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(index.hasApprovedOverlap(ITEM_ID, base.plusHours(1), base.plusHours(3)));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdAndStatusAndEndAfterOrderByStartAsc(eq(ITEM_ID), eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void testHasApprovedOverlap_FallBackToDatabase_whenStartIsBeforeIndexHorizon() {
+        stubApproved();
+        LocalDateTime pastStart = LocalDateTime.now().minusDays(3);
+        Mockito.when(bookingRepository.existsByItemIdAndStatusAndEndAfterAndStartBefore(
+                        ITEM_ID, BookingStatus.APPROVED, pastStart, base))
+                .thenReturn(true);
+
+        assertTrue(index.hasApprovedOverlap(ITEM_ID, pastStart, base));
+    }
+
+    @Test
+    void testEvict_ReloadFromDatabase() {
+        stubApproved();
+        index.hasApprovedOverlap(ITEM_ID, base, base.plusHours(1));
+        index.evict(ITEM_ID);
+        index.hasApprovedOverlap(ITEM_ID, base, base.plusHours(1));
+
+        Mockito.verify(bookingRepository, Mockito.times(2))
+                .findAllByItemIdAndStatusAndEndAfterOrderByStartAsc(eq(ITEM_ID), eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void testFindApprovedIntervals_LoadUncachedItemsIntoIndex() {
+        Long otherItemId = 2L;
+        Mockito.when(bookingRepository.findIntervalsByItemIdInAndStatusAndEndAfter(
+                        eq(List.of(ITEM_ID, otherItemId)), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(
+                        itemInterval(1L, ITEM_ID, base, base.plusHours(2)),
+                        itemInterval(2L, otherItemId, base.plusDays(1), base.plusDays(2)),
+                        itemInterval(3L, ITEM_ID, base.plusDays(30), base.plusDays(31))));
+
+        Map<Long, List<BookingInterval>> first = index.findApprovedIntervals(
+                List.of(ITEM_ID, otherItemId), base, base.plusDays(7));
+        Map<Long, List<BookingInterval>> second = index.findApprovedIntervals(
+                List.of(ITEM_ID, otherItemId), base, base.plusDays(7));
+
+        assertEquals(List.of(1L), first.get(ITEM_ID).stream().map(BookingInterval::getId).toList());
+        assertEquals(List.of(2L), first.get(otherItemId).stream().map(BookingInterval::getId).toList());
+        assertEquals(List.of(1L), second.get(ITEM_ID).stream().map(BookingInterval::getId).toList());
+        assertTrue(index.hasApprovedOverlap(ITEM_ID, base.plusDays(30), base.plusDays(32)));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findIntervalsByItemIdInAndStatusAndEndAfter(any(), any(), any());
+        Mockito.verify(bookingRepository, Mockito.never())
+                .findAllByItemIdAndStatusAndEndAfterOrderByStartAsc(any(), any(), any());
+    }
+
+    @Test
+    void testFindApprovedIntervals_SkipCaching_whenItemChangesDuringLoad() {
+        Booking booking = new Booking(5L, base, base.plusHours(2), item, null, BookingStatus.APPROVED);
+        Mockito.when(bookingRepository.findIntervalsByItemIdInAndStatusAndEndAfter(
+                        eq(List.of(ITEM_ID)), eq(BookingStatus.APPROVED), any()))
+                .thenAnswer(invocation -> {
+                    index.bookingApproved(booking);
+                    return List.of();
+                });
+        stubApproved(interval(5L, base, base.plusHours(2)));
+
+        assertTrue(index.findApprovedIntervals(List.of(ITEM_ID), base, base.plusDays(7)).get(ITEM_ID).isEmpty());
+
+        assertTrue(index.hasApprovedOverlap(ITEM_ID, base.plusHours(1), base.plusHours(3)));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findAllByItemIdAndStatusAndEndAfterOrderByStartAsc(eq(ITEM_ID), eq(BookingStatus.APPROVED), any());
+    }
+
+    @Test
+    void testFindApprovedIntervals_QueryPastRangeWithoutCaching() {
+        LocalDateTime pastFrom = LocalDateTime.now().minusDays(3);
+        Mockito.when(bookingRepository.findIntervalsByItemIdInAndStatus(
+                        List.of(ITEM_ID), BookingStatus.APPROVED, pastFrom, base))
+                .thenReturn(List.of(itemInterval(1L, ITEM_ID, pastFrom.plusHours(1), pastFrom.plusHours(2))));
+
+        Map<Long, List<BookingInterval>> intervals = index.findApprovedIntervals(List.of(ITEM_ID), pastFrom, base);
+
+        assertEquals(List.of(1L), intervals.get(ITEM_ID).stream().map(BookingInterval::getId).toList());
+        Mockito.verify(bookingRepository, Mockito.never())
+                .findIntervalsByItemIdInAndStatusAndEndAfter(any(), any(), any());
+    }
+
+    @Test
+    void testFindApprovedIntervals_AnswerCachedItemsFromIndex() {
+        stubApproved(interval(1L, base, base.plusHours(2)), interval(3L, base.plusDays(30), base.plusDays(31)));
+        index.hasApprovedOverlap(ITEM_ID, base, base.plusHours(1));
+
+        Map<Long, List<BookingInterval>> intervals = index.findApprovedIntervals(List.of(ITEM_ID), base, base.plusDays(7));
+
+        assertEquals(List.of(1L), intervals.get(ITEM_ID).stream().map(BookingInterval::getId).toList());
+        assertEquals(base.plusHours(2), intervals.get(ITEM_ID).getFirst().getEnd());
+        Mockito.verify(bookingRepository, Mockito.never())
+                .findIntervalsByItemIdInAndStatusAndEndAfter(any(), any(), any());
+    }
+
+    private void stubApproved(BookingInterval... intervals) {
+        Mockito.when(bookingRepository.findAllByItemIdAndStatusAndEndAfterOrderByStartAsc(
+                        eq(ITEM_ID), eq(BookingStatus.APPROVED), any()))
+                .thenReturn(List.of(intervals));
+    }
+
+    private static BookingInterval interval(Long id, LocalDateTime start, LocalDateTime end) {
+        return new BookingInterval() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+
+    private static BookingItemInterval itemInterval(Long id, Long itemId, LocalDateTime start, LocalDateTime end) {
+        return new BookingItemInterval() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+}
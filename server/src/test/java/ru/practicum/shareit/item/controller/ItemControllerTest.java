@@ -10,15 +10,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentImportDto;
+import ru.practicum.shareit.item.dto.CommentImportResultDto;
 import ru.practicum.shareit.item.dto.CommentSaveDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemSaveDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+import ru.practicum.shareit.item.service.CommentImportService;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
@@ -35,6 +49,8 @@ public class ItemControllerTest {
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
     @MockBean
     private final ItemService itemService;
+    @MockBean
+    private final CommentImportService commentImportService;
     private ItemDto expectedItem;
     private CommentDto expectedComment;
     private Long userId;
@@ -55,6 +71,32 @@ public class ItemControllerTest {
         expectedComment.setAuthorName("user1");
     }
 
+    @Test
+    void testGetAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        ItemAvailabilityDto availability = ItemAvailabilityDto.builder()
+                .itemId(1L)
+                .from(from)
+                .to(to)
+                .busy(List.of(new AvailabilityIntervalDto(from.plusDays(1), from.plusDays(2))))
+                .free(List.of(new AvailabilityIntervalDto(from, from.plusDays(1)),
+                        new AvailabilityIntervalDto(from.plusDays(2), to)))
+                .build();
+        when(itemService.getAvailability(List.of(1L, 2L), from, to)).thenReturn(List.of(availability));
+
+        mockMvc.perform(get("/items/availability")
+                        .param("itemIds", "1,2")
+                        .param("from", from.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].itemId", is(1)))
+                .andExpect(jsonPath("$[0].busy.length()", is(1)))
+                .andExpect(jsonPath("$[0].free.length()", is(2)));
+
+        verify(itemService, times(1)).getAvailability(List.of(1L, 2L), from, to);
+    }
+
     @Test
     void testCreateItem() throws Exception {
         ItemSaveDto itemSaveDto = new ItemSaveDto();
@@ -133,7 +175,7 @@ public class ItemControllerTest {
     void testGetItem() throws Exception {
         String path = "/items" + "/" + userId;
 
-        when(itemService.getItem(eq(userId)))
+        when(itemService.getItem(eq(userId), eq(userId)))
                 .thenReturn(expectedItem);
         String userDtoExpectedJson = objectMapper.writeValueAsString(expectedItem);
 
@@ -143,7 +185,7 @@ public class ItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json(userDtoExpectedJson));
 
-        verify(itemService, times(1)).getItem(eq(userId));
+        verify(itemService, times(1)).getItem(eq(userId), eq(userId));
     }
 
     @Test
@@ -151,17 +193,19 @@ public class ItemControllerTest {
         List<ItemDto> itemsExpected = List.of(expectedItem);
         String itemsExpectedJson = objectMapper.writeValueAsString(itemsExpected);
 
-        when(itemService.getItemsWithBookings(eq(userId)))
+        when(itemService.getItemsWithBookings(eq(userId), eq(10), eq(5)))
                 .thenReturn(itemsExpected);
 
         mockMvc.perform(get("/items")
                         .header(HEADER_USER_ID, userId)
+                        .param("from", "10")
+                        .param("size", "5")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()", is(1)))
                 .andExpect(content().json(itemsExpectedJson));
 
-        verify(itemService, times(1)).getItemsWithBookings(eq(userId));
+        verify(itemService, times(1)).getItemsWithBookings(eq(userId), eq(10), eq(5));
     }
 
     @Test
@@ -170,15 +214,104 @@ public class ItemControllerTest {
         List<ItemDto> itemsExpected = List.of(expectedItem);
         String itemsExpectedJson = objectMapper.writeValueAsString(itemsExpected);
 
-        when(itemService.searchItems(eq(searchText)))
+        when(itemService.searchItems(eq(searchText), eq(ItemSearchSort.NAME), eq(20), eq(5)))
                 .thenReturn(itemsExpected);
 
         mockMvc.perform(get("/items/search")
                         .param("text", searchText)
+                        .param("sort", "NAME")
+                        .param("from", "20")
+                        .param("size", "5")
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(content().json(itemsExpectedJson));
 
-        verify(itemService, times(1)).searchItems(eq(searchText));
+        verify(itemService, times(1)).searchItems(eq(searchText), eq(ItemSearchSort.NAME), eq(20), eq(5));
+    }
+
+    @Test
+    void testSuggestItems() throws Exception {
+        List<ItemSuggestionDto> suggestions = List.of(new ItemSuggestionDto(1L, "Дрель"));
+        when(itemService.suggestItems("дре", 5)).thenReturn(suggestions);
+
+        mockMvc.perform(get("/items/suggest")
+                        .param("prefix", "дре")
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(suggestions)));
+    }
+
+    @Test
+    void testExportItems() throws Exception {
+        ItemDto other = new ItemDto(2L, "Пила", "Дисковая", true);
+        doAnswer(invocation -> {
+            Consumer<ItemDto> consumer = invocation.getArgument(1);
+            consumer.accept(expectedItem);
+            consumer.accept(other);
+            return 2L;
+        }).when(itemService).exportItems(eq("пил"), any());
+
+        MvcResult result = mockMvc.perform(get("/items/search/export").param("text", "пил"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(expectedItem) + "\n"
+                        + objectMapper.writeValueAsString(other) + "\n"));
+    }
+
+    @Test
+    void importComments() throws Exception {
+        List<CommentImportDto> received = new ArrayList<>();
+        when(commentImportService.importComments(any())).thenAnswer(invocation -> {
+            Iterator<CommentImportDto> comments = invocation.getArgument(0);
+            comments.forEachRemaining(received::add);
+            return new CommentImportResultDto(received.size(), 0, 1, 2000.0, List.of());
+        });
+        String body = "{\"itemId\":1,\"authorId\":2,\"text\":\"Отлично\",\"created\":\"2024-05-01T10:00:00\"}\n"
+                + "{\"itemId\":3,\"authorId\":4,\"text\":\"Хорошо\"}\n";
+
+        mockMvc.perform(post("/items/comments/import")
+                        .header("X-Admin-Token", "secret")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.rejected", is(0)));
+
+        assertEquals(List.of(
+                new CommentImportDto(1L, 2L, "Отлично", LocalDateTime.of(2024, 5, 1, 10, 0)),
+                new CommentImportDto(3L, 4L, "Хорошо", null)), received);
+    }
+
+    @Test
+    void importComments_MalformedLine() throws Exception {
+        when(commentImportService.importComments(any())).thenAnswer(invocation -> {
+            Iterator<CommentImportDto> comments = invocation.getArgument(0);
+            comments.forEachRemaining(comment -> { });
+            return new CommentImportResultDto();
+        });
+
+        mockMvc.perform(post("/items/comments/import")
+                        .header("X-Admin-Token", "secret")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"itemId\":1,\"authorId\":2,\"text\":\"Отлично\"}\n{\"itemId\":"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importComments_ForbiddenWithoutAdminToken() throws Exception {
+        doThrow(new ForbiddenException("Импорт комментариев доступен только администратору."))
+                .when(commentImportService).checkAccess(null);
+
+        mockMvc.perform(post("/items/comments/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"itemId\":1,\"authorId\":2,\"text\":\"Отлично\"}\n"))
+                .andExpect(status().isForbidden());
+
+        verify(commentImportService, never()).importComments(any());
     }
 }
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ForbiddenException;
+import ru.practicum.shareit.item.dto.CommentImportDto;
+import ru.practicum.shareit.item.dto.CommentImportErrorDto;
+import ru.practicum.shareit.item.dto.CommentImportResultDto;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class CommentImportServiceTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private CommentImportService commentImportService;
+
+    private User author;
+
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        commentImportService = new CommentImportService(userRepository, itemRepository, commentRepository,
+                new ItemDetailCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)),
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 2, "secret");
+        author = userRepository.save(new User(null, "Author", "author@email.com"));
+        User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        item = itemRepository.save(new Item(null, "Дрель", "Аккумуляторная дрель", true, owner, null));
+    }
+
+    @Test
+    void testImportComments() {
+        LocalDateTime legacyCreated = LocalDateTime.of(2020, 3, 1, 12, 0);
+        List<CommentImportDto> comments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            comments.add(new CommentImportDto(item.getId(), author.getId(), "Отзыв " + i, legacyCreated.plusDays(i)));
+        }
+
+        CommentImportResultDto result = commentImportService.importComments(comments.iterator());
+
+        assertEquals(5, result.getImported());
+        assertEquals(0, result.getRejected());
+        assertTrue(result.getErrors().isEmpty());
+        List<CommentView> saved = commentRepository.findLatestByItemId(item.getId(), 10);
+        assertEquals(5, saved.size());
+        assertEquals("Отзыв 4", saved.getFirst().getText());
+        assertEquals("Author", saved.getFirst().getAuthorName());
+        assertEquals(legacyCreated.plusDays(4), saved.getFirst().getCreated());
+        assertEquals(legacyCreated, saved.getLast().getCreated());
+    }
+
+    @Test
+    void testImportComments_DefaultCreated() {
+        LocalDateTime before = LocalDateTime.now();
+
+        commentImportService.importComments(List.of(
+                new CommentImportDto(item.getId(), author.getId(), "Без даты", null)).iterator());
+
+        LocalDateTime created = commentRepository.findLatestByItemId(item.getId(), 1).getFirst().getCreated();
+        assertNotNull(created);
+        assertFalse(created.isBefore(before));
+    }
+
+    @Test
+    void testImportComments_RejectInvalidRows() {
+        List<CommentImportDto> comments = List.of(
+                new CommentImportDto(item.getId(), author.getId(), "Хорошая дрель", null),
+                new CommentImportDto(item.getId(), 9999L, "Чужой автор", null),
+                new CommentImportDto(9999L, author.getId(), "Нет вещи", null),
+                new CommentImportDto(item.getId(), author.getId(), " ", null),
+                new CommentImportDto(item.getId(), author.getId(), "Ещё отзыв", null));
+
+        CommentImportResultDto result = commentImportService.importComments(comments.iterator());
+
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals(List.of(2L, 3L, 4L), result.getErrors().stream().map(CommentImportErrorDto::getLine).toList());
+        assertEquals(2, commentRepository.findLatestByItemId(item.getId(), 10).size());
+    }
+
+    @Test
+    void testImportComments_InsertInJdbcBatches() {
+        commentImportService = new CommentImportService(userRepository, itemRepository, commentRepository,
+                new ItemDetailCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)),
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 20, "secret");
+        List<CommentImportDto> comments = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            comments.add(new CommentImportDto(item.getId(), author.getId(), "Отзыв " + i, null));
+        }
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+
+        commentImportService.importComments(comments.iterator());
+        entityManager.flush();
+
+        assertEquals(20, statistics.getEntityInsertCount());
+        // две проверки id, не больше одного обращения к comment_seq (allocationSize 50) и один батч вставки
+        assertTrue(statistics.getPrepareStatementCount() <= 4);
+    }
+
+    @Test
+    void testCheckAccess() {
+        assertDoesNotThrow(() -> commentImportService.checkAccess("secret"));
+        assertThrows(ForbiddenException.class, () -> commentImportService.checkAccess("wrong"));
+        assertThrows(ForbiddenException.class, () -> commentImportService.checkAccess(null));
+
+        CommentImportService disabled = new CommentImportService(userRepository, itemRepository, commentRepository,
+                new ItemDetailCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)),
+                new TransactionTemplate(transactionManager), new SimpleMeterRegistry(), 2, "");
+        assertThrows(ForbiddenException.class, () -> disabled.checkAccess(""));
+    }
+}
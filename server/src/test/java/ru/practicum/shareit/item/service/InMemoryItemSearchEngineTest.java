@@ -0,0 +1,143 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryItemSearchEngineTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    private InMemoryItemSearchEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(itemRepository.findAllAvailableForSearch()).thenReturn(List.of(
+                view(1L, "Дрель", "Аккумуляторная"),
+                view(2L, "Штатив", "Подходит для дрели"),
+                view(3L, "Ноутбук", "Игровой")));
+        engine = new InMemoryItemSearchEngine(itemRepository);
+        engine.rebuild();
+    }
+
+    @Test
+    void testFindIds_MatchSubstringsCaseInsensitive_NameMatchesFirst() {
+        assertEquals(List.of(1L, 2L), engine.findIds("ДРЕЛ", ItemSearchSort.RELEVANCE));
+        assertEquals(List.of(1L, 2L), engine.findIds("др", ItemSearchSort.RELEVANCE));
+        assertEquals(List.of(3L), engine.findIds("гров", ItemSearchSort.RELEVANCE));
+        assertTrue(engine.findIds("пылесос", ItemSearchSort.RELEVANCE).isEmpty());
+    }
+
+    @Test
+    void testRebuild_SortPostings_whenItemsArriveUnordered() {
+        Mockito.when(itemRepository.findAllAvailableForSearch()).thenReturn(List.of(
+                view(7L, "Дрель", "Новая"),
+                view(3L, "Ударная дрель", "Б/у"),
+                view(5L, "Штатив", "Для дрели"),
+                view(3L, "Ударная дрель", "Б/у")));
+
+        engine.rebuild();
+
+        assertEquals(List.of(3L, 7L, 5L), engine.findIds("дрел", ItemSearchSort.RELEVANCE));
+        assertEquals(List.of(3L, 5L, 7L), engine.findIds("", ItemSearchSort.RELEVANCE));
+    }
+
+    @Test
+    void testItemSavedAndDeleted_UpdateIndexIncrementally() {
+        engine.itemSaved(item(1L, "Дрель", "Аккумуляторная", false));
+        engine.itemSaved(item(4L, "Дрель ударная", "Новая", true));
+        engine.itemDeleted(2L);
+
+        assertEquals(List.of(4L), engine.findIds("дрел", ItemSearchSort.RELEVANCE));
+        assertTrue(engine.findIds("штатив", ItemSearchSort.RELEVANCE).isEmpty());
+    }
+
+    @Test
+    void testRebuild_KeepItemSavedDuringRebuild() throws Exception {
+        CountDownLatch queried = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(itemRepository.findAllAvailableForSearch()).thenAnswer(invocation -> {
+            queried.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(view(1L, "Дрель", "Аккумуляторная"));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> rebuild = executor.submit(engine::rebuild);
+            assertTrue(queried.await(5, TimeUnit.SECONDS));
+            Future<?> saved = executor.submit(() -> engine.itemSaved(item(4L, "Дрель ударная", "Новая", true)));
+            try {
+                saved.get(200, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // изменение ждёт окончания перестроения
+            }
+            release.countDown();
+            rebuild.get(5, TimeUnit.SECONDS);
+            saved.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(1L, 4L), engine.findIds("дрел", ItemSearchSort.RELEVANCE));
+    }
+
+    @Test
+    void testSearch_HydrateItemsInRankOrder() {
+        Item drill = item(1L, "Дрель", "Аккумуляторная", true);
+        Item tripod = item(2L, "Штатив", "Подходит для дрели", true);
+        Mockito.when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(tripod, drill));
+
+        Mockito.when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(drill));
+
+        assertEquals(List.of(drill, tripod), engine.search("дрел", ItemSearchSort.RELEVANCE, 0, 10));
+        assertEquals(List.of(drill), engine.search("дрел", ItemSearchSort.NAME, 0, 1));
+        assertTrue(engine.search("дрел", ItemSearchSort.NAME, 5, 10).isEmpty());
+    }
+
+    private static Item item(Long id, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+
+    private static ItemSearchView view(Long id, String name, String description) {
+        return new ItemSearchView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class ItemNameSuggesterTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    private ItemNameSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(itemRepository.findAllAvailableForSearch()).thenReturn(List.of(
+                view(1L, "Дрель ударная"),
+                view(2L, "Аккумуляторная дрель"),
+                view(3L, "Дрезина"),
+                view(4L, "Пила")));
+        suggester = new ItemNameSuggester(itemRepository);
+        suggester.rebuild();
+    }
+
+    @Test
+    void testSuggest_MatchNameAndWordPrefixes() {
+        assertEquals(List.of(2L, 1L), ids(suggester.suggest("  ДРЕЛЬ ", 10)));
+        assertEquals(List.of(3L, 2L), ids(suggester.suggest("дре", 2)));
+        assertEquals(List.of(1L), ids(suggester.suggest("дрель уд", 10)));
+        assertTrue(suggester.suggest("молоток", 10).isEmpty());
+    }
+
+    @Test
+    void testItemSavedAndDeleted_UpdateSuggestions() {
+        suggester.itemSaved(Item.builder().id(4L).name("Пила дисковая").available(true).build());
+        suggester.itemSaved(Item.builder().id(1L).name("Дрель ударная").available(false).build());
+        suggester.itemDeleted(3L);
+
+        assertEquals(List.of(new ItemSuggestionDto(4L, "Пила дисковая")), suggester.suggest("дис", 10));
+        assertEquals(List.of(2L), ids(suggester.suggest("др", 10)));
+    }
+
+    @Test
+    void testItemSaved_MergeKeysInOrder_whenNameChanges() {
+        suggester.itemSaved(Item.builder().id(5L).name("Дрель аккумуляторная").available(true).build());
+        suggester.itemSaved(Item.builder().id(4L).name("Дисковая пила").available(true).build());
+
+        assertEquals(List.of(3L, 2L, 5L, 1L), ids(suggester.suggest("др", 10)));
+        assertEquals(List.of(4L), ids(suggester.suggest("пил", 10)));
+        assertEquals(List.of(4L), ids(suggester.suggest("дис", 10)));
+    }
+
+    private static List<Long> ids(List<ItemSuggestionDto> suggestions) {
+        return suggestions.stream().map(ItemSuggestionDto::getId).toList();
+    }
+
+    private static ItemSearchView view(Long id, String name) {
+        return new ItemSearchView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return "";
+            }
+        };
+    }
+}
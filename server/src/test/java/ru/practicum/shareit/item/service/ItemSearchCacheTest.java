@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.ItemSearchSort;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSearchCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ItemSearchCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemSearchCache(meterRegistry, 2, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGet_ReuseResultForNormalizedText() {
+        List<ItemDto> first = cache.get("Дрель", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+        List<ItemDto> second = cache.get("  дрель ", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+        cache.get("дрель", ItemSearchSort.NAME, 0, 10, this::load);
+
+        assertEquals(first, second);
+        assertEquals(2, loads.get());
+        assertEquals(1.0, counter("hit"));
+        assertEquals(2.0, counter("miss"));
+    }
+
+    @Test
+    void testInvalidate_ReloadAfterItemChange() {
+        cache.get("дрель", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+        cache.invalidate();
+        cache.get("дрель", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(1.0, meterRegistry.counter("shareit.item.search.cache.evictions").count());
+    }
+
+    @Test
+    void testGet_EvictLeastRecentlyUsed() {
+        cache.get("дрель", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+        cache.get("пила", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+        cache.get("дрель", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+        cache.get("молоток", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+        cache.get("дрель", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+        cache.get("пила", ItemSearchSort.RELEVANCE, 0, 10, this::load);
+
+        assertEquals(4, loads.get());
+        assertEquals(2.0, meterRegistry.get("shareit.item.search.cache.size").gauge().value());
+        assertEquals(2.0, meterRegistry.counter("shareit.item.search.cache.evictions").count());
+    }
+
+    private List<ItemDto> load(String text) {
+        long id = loads.incrementAndGet();
+        return List.of(ItemDto.builder().id(id).name("Вещь " + id).build());
+    }
+
+    private double counter(String result) {
+        return meterRegistry.counter("shareit.item.search.cache", "result", result).count();
+    }
+}
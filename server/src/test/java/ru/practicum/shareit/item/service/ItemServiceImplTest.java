@@ -2,31 +2,46 @@ package ru.practicum.shareit.item.service;
 
 import org.junit.jupiter.api.Test;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.AvailabilityIntervalDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentSaveDto;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.ItemCommentCount;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemDetailRow;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemSaveDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
 
 import java.util.List;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.ItemLastNextBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.AvailabilityIndex;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestNotifier;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,6 +64,27 @@ class ItemServiceImplTest {
     @Mock
     private CommentRepository commentRepository;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
+
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+
+    @Mock
+    private ItemRequestNotifier itemRequestNotifier;
+
+    @Spy
+    private ItemDetailCache itemDetailCache = new ItemDetailCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
+    @Spy
+    private CommentEligibilityMemo commentEligibilityMemo = new CommentEligibilityMemo(100);
+
+    @Spy
+    private ItemSearchCache itemSearchCache = new ItemSearchCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+
     private final User user = new User(1L, "User", "user@email.com");
 
     private final ItemRequest request = ItemRequest.builder()
@@ -104,90 +140,122 @@ class ItemServiceImplTest {
             .build();
 
     @Test
-    void testGetItem_Success() {
-        Long itemId = item.getId();
-        Comment comment2 = Comment.builder()
-                .id(2L)
-                .text("Text2")
-                .item(item)
-                .author(user)
-                .build();
-        List<Comment> comments = List.of(comment, comment2);
+    void testGetAvailability_MergeBusyIntervalsAndReturnFreeGaps() {
+        LocalDateTime from = LocalDateTime.now().plusDays(1).withNano(0);
+        LocalDateTime to = from.plusDays(10);
+        Mockito.when(itemRepository.findIdsByIdIn(List.of(1L))).thenReturn(List.of(1L));
+        Mockito.when(availabilityIndex.findApprovedIntervals(anyCollection(), eq(from), eq(to)))
+                .thenReturn(Map.of(1L, List.of(
+                        interval(from.minusDays(1), from.plusDays(1)),
+                        interval(from.plusDays(2), from.plusDays(4)),
+                        interval(from.plusDays(3), from.plusDays(5)))));
+
+        ItemAvailabilityDto availability = itemService.getAvailability(1L, from, to);
+
+        assertEquals(List.of(
+                new AvailabilityIntervalDto(from, from.plusDays(1)),
+                new AvailabilityIntervalDto(from.plusDays(2), from.plusDays(5))), availability.getBusy());
+        assertEquals(List.of(
+                new AvailabilityIntervalDto(from.plusDays(1), from.plusDays(2)),
+                new AvailabilityIntervalDto(from.plusDays(5), to)), availability.getFree());
+    }
 
-        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        Mockito.when(commentRepository.findAllByItemId(itemId)).thenReturn(comments);
+    @Test
+    void testGetAvailability_ThrowNotFoundException_whenItemNotFound() {
+        Mockito.when(itemRepository.findIdsByIdIn(List.of(1L, 2L))).thenReturn(List.of(1L));
 
-        ItemDto result = itemService.getItem(itemId);
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> itemService.getAvailability(List.of(1L, 2L), null, null));
 
-        assertNotNull(result);
-        assertEquals(itemId, result.getId());
-        assertEquals("ItemName", result.getName());
-        assertEquals(2, result.getComments().size());
-        assertEquals("Text", result.getComments().getFirst().getText());
+        assertEquals("Вещь с id = 2 не найдена", exception.getMessage());
+        Mockito.verifyNoInteractions(availabilityIndex);
+    }
 
-        Mockito.verify(itemRepository).findById(itemId);
-        Mockito.verify(commentRepository).findAllByItemId(itemId);
+    @Test
+    void testGetItem_ReturnBookingsOnlyToOwnerAndCacheDetail() {
+        Long itemId = item.getId();
+        LocalDateTime last = LocalDateTime.now().minusDays(2);
+        LocalDateTime next = LocalDateTime.now().plusDays(2);
+        LocalDateTime created = LocalDateTime.now().minusDays(1);
+
+        Mockito.when(itemRepository.findDetailById(eq(itemId), eq(BookingStatus.APPROVED), any(LocalDateTime.class),
+                        anyInt()))
+                .thenReturn(List.of(detailRow(last, next, 2L, "Text2", created),
+                        detailRow(last, next, 1L, "Text", created.minusHours(1))));
+
+        ItemDto forOwner = itemService.getItem(user.getId(), itemId);
+        ItemDto forOther = itemService.getItem(99L, itemId);
+
+        assertEquals(itemId, forOwner.getId());
+        assertEquals("ItemName", forOwner.getName());
+        assertEquals(last, forOwner.getLastBooking());
+        assertEquals(next, forOwner.getNextBooking());
+        assertEquals(List.of(2L, 1L), forOwner.getComments().stream().map(CommentDto::getId).toList());
+        assertEquals(2L, forOwner.getCommentCount());
+        assertNull(forOther.getLastBooking());
+        assertNull(forOther.getNextBooking());
+        assertEquals(2, forOther.getComments().size());
+        Mockito.verify(itemRepository, Mockito.times(1))
+                .findDetailById(eq(itemId), eq(BookingStatus.APPROVED), any(LocalDateTime.class), anyInt());
+        Mockito.verifyNoInteractions(commentRepository);
     }
 
     @Test
     void testGetItem_ItemNotFound() {
         Long itemId = 2L;
 
-        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
-
-        assertThrows(NotFoundException.class, () -> itemService.getItem(itemId));
+        Mockito.when(itemRepository.findDetailById(eq(itemId), any(), any(), anyInt())).thenReturn(List.of());
 
-        Mockito.verify(itemRepository).findById(itemId);
-        Mockito.verify(commentRepository, Mockito.never()).findAllByItemId(anyLong());
+        assertThrows(NotFoundException.class, () -> itemService.getItem(user.getId(), itemId));
     }
 
     @Test
     void testGetItemsWithBookings_ReturnItemsWithBookingsAndComments() {
         Long ownerId = 1L;
         List<Item> items = List.of(item);
-        List<Booking> lastBookings = List.of(bookingList.get(0));
-        List<Booking> nextBookings = List.of(bookingList.get(1));
-        List<Comment> comments = List.of(comment);
+        Booking lastBooking = bookingList.get(0);
+        Booking nextBooking = bookingList.get(1);
 
-        Mockito.when(itemRepository.findAllByOwnerId(ownerId)).thenReturn(items);
-        Mockito.when(bookingRepository.findLastBookingsByOwner(eq(ownerId), any(LocalDateTime.class)))
-                .thenReturn(lastBookings);
-        Mockito.when(bookingRepository.findNextBookingsByOwner(eq(ownerId), any(LocalDateTime.class)))
-                .thenReturn(nextBookings);
-        Mockito.when(commentRepository.findByItem_Owner_Id(ownerId)).thenReturn(comments);
+        Mockito.when(itemRepository.findPageByOwnerId(ownerId, 0, 10)).thenReturn(items);
+        Mockito.when(bookingRepository.findLastNextByItemIdInAndStatus(eq(List.of(1L)), eq(BookingStatus.APPROVED), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastNext(1L, lastBooking, nextBooking)));
+        Mockito.when(commentRepository.findLatestByItemIdIn(eq(List.of(1L)), anyInt()))
+                .thenReturn(List.of(commentView(comment)));
+        Mockito.when(commentRepository.countByItemIdIn(List.of(1L))).thenReturn(List.of(commentCount(1L, 25L)));
 
         ItemDto expectedItemDto = ItemDto.builder()
                 .id(1L)
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
-                .lastBooking(lastBookings.getFirst().getStart())
-                .nextBooking(nextBookings.getFirst().getStart())
+                .lastBooking(lastBooking.getStart())
+                .nextBooking(nextBooking.getStart())
                 .comments(List.of(new CommentDto(1L, "Text", "User", null)))
+                .commentCount(25L)
                 .build();
 
-        List<ItemDto> actualItems = itemService.getItemsWithBookings(ownerId);
+        List<ItemDto> actualItems = itemService.getItemsWithBookings(ownerId, 0, 10);
 
         assertFalse(actualItems.isEmpty());
         assertEquals(1, actualItems.size());
         assertEquals(expectedItemDto, actualItems.getFirst());
 
-        Mockito.verify(itemRepository).findAllByOwnerId(ownerId);
-        Mockito.verify(bookingRepository).findLastBookingsByOwner(eq(ownerId), any(LocalDateTime.class));
-        Mockito.verify(bookingRepository).findNextBookingsByOwner(eq(ownerId), any(LocalDateTime.class));
-        Mockito.verify(commentRepository).findByItem_Owner_Id(ownerId);
+        Mockito.verify(itemRepository).findPageByOwnerId(ownerId, 0, 10);
+        Mockito.verify(bookingRepository).findLastNextByItemIdInAndStatus(eq(List.of(1L)), eq(BookingStatus.APPROVED), any(LocalDateTime.class));
+        Mockito.verify(commentRepository).findLatestByItemIdIn(eq(List.of(1L)), anyInt());
+        Mockito.verify(commentRepository).countByItemIdIn(List.of(1L));
     }
 
 
     @Test
     void testGetItemsWithBookings_ReturnEmptyList_whenNoItemsFound() {
-        Mockito.when(itemRepository.findAllByOwnerId(1L)).thenReturn(List.of());
+        Mockito.when(itemRepository.findPageByOwnerId(1L, 0, 10)).thenReturn(List.of());
 
-        List<ItemDto> actualItems = itemService.getItemsWithBookings(1L);
+        List<ItemDto> actualItems = itemService.getItemsWithBookings(1L, 0, 10);
 
         assertTrue(actualItems.isEmpty());
 
-        Mockito.verify(itemRepository).findAllByOwnerId(1L);
+        Mockito.verify(itemRepository).findPageByOwnerId(1L, 0, 10);
         Mockito.verifyNoInteractions(bookingRepository);
         Mockito.verifyNoInteractions(commentRepository);
     }
@@ -195,32 +263,34 @@ class ItemServiceImplTest {
 
     @Test
     void testSearchItems_ReturnListOfItems_whenTextIsValid() {
-        String searchText = "ItemName";
+        String searchText = "  ItemName ";
         List<Item> foundItems = List.of(item);
         List<ItemDto> expectedItems = List.of(itemDto);
 
-        Mockito.when(itemRepository.searchItems(searchText)).thenReturn(foundItems);
+        Mockito.when(itemSearchEngine.search("itemname", ItemSearchSort.RELEVANCE, 0, 10)).thenReturn(foundItems);
 
-        List<ItemDto> actualItems = itemService.searchItems(searchText);
+        List<ItemDto> actualItems = itemService.searchItems(searchText, ItemSearchSort.RELEVANCE, 0, 10);
 
         assertEquals(expectedItems, actualItems);
-        Mockito.verify(itemRepository).searchItems(searchText);
+        Mockito.verify(itemSearchEngine).search("itemname", ItemSearchSort.RELEVANCE, 0, 10);
     }
 
     @Test
     void testSearchItems_ReturnEmptyList_whenTextIsBlank() {
-        List<ItemDto> actualItems = itemService.searchItems("   ");
+        List<ItemDto> actualItems = itemService.searchItems("   ", ItemSearchSort.RELEVANCE, 0, 10);
 
         assertTrue(actualItems.isEmpty());
         Mockito.verifyNoInteractions(itemRepository);
+        Mockito.verifyNoInteractions(itemSearchEngine);
     }
 
     @Test
     void testSearchItems_ReturnEmptyList_whenTextIsNull() {
-        List<ItemDto> actualItems = itemService.searchItems(null);
+        List<ItemDto> actualItems = itemService.searchItems(null, ItemSearchSort.RELEVANCE, 0, 10);
 
         assertTrue(actualItems.isEmpty());
         Mockito.verifyNoInteractions(itemRepository);
+        Mockito.verifyNoInteractions(itemSearchEngine);
     }
 
     @Test
@@ -231,6 +301,8 @@ class ItemServiceImplTest {
                 .thenReturn(item);
 
         assertEquals(itemService.createItem(1L, itemSaveDto), itemDto);
+        Mockito.verify(itemSearchEngine).itemSaved(item);
+        Mockito.verifyNoInteractions(itemRequestNotifier);
     }
 
     @Test
@@ -276,17 +348,15 @@ class ItemServiceImplTest {
 
         Mockito.verify(itemRepository).findById(1L);
         Mockito.verify(itemRepository).delete(item);
+        Mockito.verify(availabilityIndex).evict(1L);
+        Mockito.verify(itemSearchEngine).itemDeleted(1L);
     }
 
     @Test
     void testCreateComment() {
-        Mockito.when(itemRepository.findById(anyLong()))
-                .thenReturn(Optional.of(item));
-        Mockito.when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(user));
-
-        Mockito.when(bookingRepository.findByItemIdAndBookerIdAndStatusAndEndIsBefore(anyLong(), anyLong(), any(), any()))
-                .thenReturn(bookingList);
+        Mockito.when(bookingRepository.findBookerNameByCompletedBooking(eq(1L), eq(1L), eq(BookingStatus.APPROVED),
+                        any(LocalDateTime.class)))
+                .thenReturn(Optional.of(user.getName()));
         Mockito.when(commentRepository.save(any()))
                 .thenReturn(comment);
 
@@ -295,5 +365,195 @@ class ItemServiceImplTest {
         assertEquals(testComment.getId(), commentDto.getId());
         assertEquals(testComment.getText(), commentDto.getText());
         assertEquals(testComment.getAuthorName(), commentDto.getAuthorName());
+        Mockito.verify(userRepository, Mockito.never()).findById(anyLong());
+        Mockito.verify(itemRepository, Mockito.never()).findById(anyLong());
+    }
+
+    @Test
+    void testCreateComment_UseMemoAfterFirstEligibleComment() {
+        Mockito.when(bookingRepository.findBookerNameByCompletedBooking(eq(1L), eq(1L), eq(BookingStatus.APPROVED),
+                        any(LocalDateTime.class)))
+                .thenReturn(Optional.of(user.getName()));
+        Mockito.when(userRepository.findNameById(1L)).thenReturn(Optional.of(user.getName()));
+        Mockito.when(itemRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(commentRepository.save(any())).thenReturn(comment);
+
+        itemService.addComment(1L, 1L, commentSaveDto);
+        CommentDto second = itemService.addComment(1L, 1L, commentSaveDto);
+
+        assertEquals(user.getName(), second.getAuthorName());
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findBookerNameByCompletedBooking(anyLong(), anyLong(), any(), any());
+    }
+
+    @Test
+    void testCreateComment_ThrowNotFoundException_whenMemoizedItemIsDeleted() {
+        commentEligibilityMemo.markEligible(1L, 1L);
+        Mockito.when(itemRepository.existsById(1L)).thenReturn(false);
+        Mockito.when(bookingRepository.findBookerNameByCompletedBooking(anyLong(), anyLong(), any(), any()))
+                .thenReturn(Optional.empty());
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        Mockito.when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> itemService.addComment(1L, 1L, commentSaveDto));
+        assertFalse(commentEligibilityMemo.isEligible(1L, 1L));
+        Mockito.verify(commentRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void testCreateComment_ThrowValidationException_whenNoCompletedBooking() {
+        Mockito.when(bookingRepository.findBookerNameByCompletedBooking(anyLong(), anyLong(), any(), any()))
+                .thenReturn(Optional.empty());
+        Mockito.when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        Mockito.when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        assertThrows(ValidationException.class, () -> itemService.addComment(1L, 1L, commentSaveDto));
+        Mockito.verify(commentRepository, Mockito.never()).save(any());
+    }
+
+    private static BookingInterval interval(LocalDateTime start, LocalDateTime end) {
+        return new BookingInterval() {
+            @Override
+            public Long getId() {
+                return null;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return end;
+            }
+        };
+    }
+
+    private static ItemLastNextBooking lastNext(Long itemId, Booking last, Booking next) {
+        return new ItemLastNextBooking() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public LocalDateTime getLastBookingStart() {
+                return last.getStart();
+            }
+
+            @Override
+            public LocalDateTime getNextBookingStart() {
+                return next.getStart();
+            }
+        };
+    }
+
+    private ItemDetailRow detailRow(LocalDateTime last, LocalDateTime next, Long commentId, String text,
+                                    LocalDateTime created) {
+        return new ItemDetailRow() {
+            @Override
+            public Long getId() {
+                return item.getId();
+            }
+
+            @Override
+            public String getName() {
+                return item.getName();
+            }
+
+            @Override
+            public String getDescription() {
+                return item.getDescription();
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return item.getAvailable();
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return item.getOwner().getId();
+            }
+
+            @Override
+            public LocalDateTime getLastBookingStart() {
+                return last;
+            }
+
+            @Override
+            public LocalDateTime getNextBookingStart() {
+                return next;
+            }
+
+            @Override
+            public Long getCommentCount() {
+                return 2L;
+            }
+
+            @Override
+            public Long getCommentId() {
+                return commentId;
+            }
+
+            @Override
+            public String getCommentText() {
+                return text;
+            }
+
+            @Override
+            public String getCommentAuthorName() {
+                return user.getName();
+            }
+
+            @Override
+            public LocalDateTime getCommentCreated() {
+                return created;
+            }
+        };
+    }
+
+    private static CommentView commentView(Comment comment) {
+        return new CommentView() {
+            @Override
+            public Long getId() {
+                return comment.getId();
+            }
+
+            @Override
+            public Long getItemId() {
+                return comment.getItem().getId();
+            }
+
+            @Override
+            public String getText() {
+                return comment.getText();
+            }
+
+            @Override
+            public String getAuthorName() {
+                return comment.getAuthor().getName();
+            }
+
+            @Override
+            public LocalDateTime getCreated() {
+                return comment.getCreated();
+            }
+        };
+    }
+
+    private static ItemCommentCount commentCount(Long itemId, Long count) {
+        return new ItemCommentCount() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
     }
 }
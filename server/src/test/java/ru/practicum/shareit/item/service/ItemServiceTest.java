@@ -1,21 +1,36 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.transaction.TestTransaction;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.DatabaseAvailabilityIndex;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CommentSaveDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemSaveDto;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSort;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestNotifier;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -35,6 +50,10 @@ class ItemServiceTest {
 
     private ItemService itemService;
 
+    private ItemRequestNotifier itemRequestNotifier;
+
+    private final List<Runnable> dispatched = new ArrayList<>();
+
     private User user;
 
     private ItemRequest itemRequest;
@@ -47,8 +66,15 @@ class ItemServiceTest {
 
     @BeforeEach
     void setUp() {
+        itemRequestNotifier = new ItemRequestNotifier(new SimpleMeterRegistry(), Duration.ofMinutes(1), dispatched::add);
         itemService = new ItemServiceImpl(itemRepository, userRepository, bookingRepository, commentRepository,
-                itemRequestRepository);
+                itemRequestRepository, new DatabaseAvailabilityIndex(bookingRepository),
+                new LikeItemSearchEngine(itemRepository),
+                new ItemSearchCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)),
+                new ItemNameSuggester(itemRepository),
+                new ItemDetailCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1)),
+                new CommentEligibilityMemo(100),
+                itemRequestNotifier);
         user = userRepository.save(new User(null, "User1", "user1@email.com"));
 
         itemRequest = itemRequestRepository.save(new ItemRequest(null, "Нужен ноутбук", user,
@@ -74,6 +100,19 @@ class ItemServiceTest {
         assertEquals(itemRequest.getId(), savedItem.getRequest().getId());
     }
 
+    @Test
+    void testCreateItem_PublishNothing_whenTransactionRollsBack() {
+        itemRequestNotifier.subscribe(user.getId());
+
+        itemService.createItem(user.getId(), new ItemSaveDto("Ноутбук", "Игровой ноутбук", true, itemRequest.getId()));
+        assertTrue(dispatched.isEmpty());
+
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        assertTrue(dispatched.isEmpty());
+    }
+
     @Test
     void testCreateItem_ThrowNotFoundException_IfUserNotFound() {
         ItemSaveDto itemSaveDto = new ItemSaveDto("Книга", "Изучаю Java с ЯП", true, null);
@@ -97,4 +136,172 @@ class ItemServiceTest {
 
         assertEquals("Запрос с id = 999 не найден", exception.getMessage());
     }
+
+    @Test
+    void testSearchItems_RankAndPaginate() {
+        ItemDto inDescription = itemService.createItem(user.getId(),
+                new ItemSaveDto("Штатив", "Подходит для любой дрели", true, null));
+        ItemDto inName = itemService.createItem(user.getId(),
+                new ItemSaveDto("Дрель", "Аккумуляторная", true, null));
+        itemService.createItem(user.getId(), new ItemSaveDto("Дрель старая", "Сломана", false, null));
+
+        List<ItemDto> byRelevance = itemService.searchItems("дрел", ItemSearchSort.RELEVANCE, 0, 10);
+        List<ItemDto> byName = itemService.searchItems("дрел", ItemSearchSort.NAME, 0, 10);
+        List<ItemDto> secondPage = itemService.searchItems("дрел", ItemSearchSort.RELEVANCE, 1, 1);
+
+        assertEquals(List.of(inName.getId(), inDescription.getId()), byRelevance.stream().map(ItemDto::getId).toList());
+        assertEquals(List.of(inName.getId(), inDescription.getId()), byName.stream().map(ItemDto::getId).toList());
+        assertEquals(List.of(inDescription.getId()), secondPage.stream().map(ItemDto::getId).toList());
+    }
+
+    @Test
+    void testExportItems_StreamAllMatchesInIdOrder() {
+        ItemDto first = itemService.createItem(user.getId(), new ItemSaveDto("Дрель", "Аккумуляторная", true, null));
+        itemService.createItem(user.getId(), new ItemSaveDto("Дрель старая", "Сломана", false, null));
+        ItemDto second = itemService.createItem(user.getId(),
+                new ItemSaveDto("Штатив", "Подходит для любой дрели", true, null));
+        List<ItemDto> exported = new ArrayList<>();
+
+        long count = itemService.exportItems("дрел", exported::add);
+
+        assertEquals(2, count);
+        assertEquals(List.of(first.getId(), second.getId()), exported.stream().map(ItemDto::getId).toList());
+        assertEquals(0, itemService.exportItems(" ", exported::add));
+    }
+
+    @Test
+    void testGetItemsWithBookings_PageItemsAndResolveBookingsPerItem() {
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        ItemDto first = itemService.createItem(user.getId(), new ItemSaveDto("Дрель", "Ударная", true, null));
+        ItemDto second = itemService.createItem(user.getId(), new ItemSaveDto("Пила", "Дисковая", true, null));
+        itemService.createItem(user.getId(), new ItemSaveDto("Молоток", "Слесарный", true, null));
+        Item secondItem = itemRepository.findById(second.getId()).orElseThrow();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        bookingRepository.save(new Booking(null, now.minusDays(5), now.minusDays(4), secondItem, booker,
+                BookingStatus.APPROVED));
+        Booking last = bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), secondItem, booker,
+                BookingStatus.APPROVED));
+        Booking next = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), secondItem, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), secondItem, booker,
+                BookingStatus.APPROVED));
+
+        List<ItemDto> page = itemService.getItemsWithBookings(user.getId(), 1, 1);
+        List<ItemDto> firstPage = itemService.getItemsWithBookings(user.getId(), 0, 1);
+
+        assertEquals(1, page.size());
+        assertEquals(second.getId(), page.getFirst().getId());
+        assertEquals(last.getStart(), page.getFirst().getLastBooking());
+        assertEquals(next.getStart(), page.getFirst().getNextBooking());
+        assertEquals(List.of(first.getId()), firstPage.stream().map(ItemDto::getId).toList());
+        assertNull(firstPage.getFirst().getLastBooking());
+    }
+
+    @Test
+    void testGetItemsWithBookings_PickOneApprovedBookingPerItem_whenManyBookings() {
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item drill = itemRepository.findById(itemService.createItem(user.getId(),
+                new ItemSaveDto("Дрель", "Ударная", true, null)).getId()).orElseThrow();
+        Item saw = itemRepository.findById(itemService.createItem(user.getId(),
+                new ItemSaveDto("Пила", "Дисковая", true, null)).getId()).orElseThrow();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int day = 1; day <= 20; day++) {
+            BookingStatus status = day % 2 == 0 ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            bookingRepository.save(new Booking(null, now.minusDays(day * 2L), now.minusDays(day * 2L - 1),
+                    drill, booker, status));
+            bookingRepository.save(new Booking(null, now.plusDays(day * 2L), now.plusDays(day * 2L + 1),
+                    drill, booker, status));
+        }
+        bookingRepository.save(new Booking(null, now.minusDays(1), now.minusHours(1), saw, booker,
+                BookingStatus.WAITING));
+
+        List<ItemDto> items = itemService.getItemsWithBookings(user.getId(), 0, 10);
+
+        assertEquals(List.of(drill.getId(), saw.getId()), items.stream().map(ItemDto::getId).toList());
+        assertEquals(now.minusDays(4), items.getFirst().getLastBooking());
+        assertEquals(now.plusDays(4), items.getFirst().getNextBooking());
+        assertNull(items.get(1).getLastBooking());
+        assertNull(items.get(1).getNextBooking());
+    }
+
+    @Test
+    void testGetItem_LoadDetailWithBookingsAndLatestComments() {
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        ItemDto created = itemService.createItem(user.getId(), new ItemSaveDto("Дрель", "Ударная", true, null));
+        Item item = itemRepository.findById(created.getId()).orElseThrow();
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), item, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item, booker,
+                BookingStatus.APPROVED));
+        commentRepository.save(new Comment(null, "Старый отзыв", item, booker, now.minusDays(2)));
+        commentRepository.save(new Comment(null, "Новый отзыв", item, booker, now.minusDays(1)));
+
+        ItemDto forOwner = itemService.getItem(user.getId(), item.getId());
+        ItemDto forBooker = itemService.getItem(booker.getId(), item.getId());
+        ItemDto withoutComments = itemService.getItem(null,
+                itemService.createItem(user.getId(), new ItemSaveDto("Пила", "Дисковая", true, null)).getId());
+
+        assertEquals(now.minusDays(3), forOwner.getLastBooking());
+        assertEquals(now.plusDays(1), forOwner.getNextBooking());
+        assertEquals(List.of("Новый отзыв", "Старый отзыв"),
+                forOwner.getComments().stream().map(CommentDto::getText).toList());
+        assertEquals("Booker", forOwner.getComments().getFirst().getAuthorName());
+        assertNull(forBooker.getLastBooking());
+        assertTrue(withoutComments.getComments().isEmpty());
+        assertThrows(NotFoundException.class, () -> itemService.getItem(user.getId(), 999L));
+    }
+
+    @Test
+    void testGetComments_PageNewestFirstWithKeyset() {
+        User author = userRepository.save(new User(null, "Author", "author@email.com"));
+        Item item = itemRepository.findById(itemService.createItem(user.getId(),
+                new ItemSaveDto("Дрель", "Ударная", true, null)).getId()).orElseThrow();
+        LocalDateTime created = LocalDateTime.now().minusDays(1).withNano(0);
+        for (int i = 0; i < 12; i++) {
+            commentRepository.save(new Comment(null, "Отзыв " + i, item, author, created.plusMinutes(i / 2)));
+        }
+
+        List<CommentDto> firstPage = itemService.getComments(item.getId(), null, null, 5);
+        CommentDto cursor = firstPage.getLast();
+        List<CommentDto> secondPage = itemService.getComments(item.getId(), cursor.getCreated(), cursor.getId(), 5);
+        List<CommentDto> lastPage = itemService.getComments(item.getId(), secondPage.getLast().getCreated(),
+                secondPage.getLast().getId(), 5);
+        List<ItemDto> owned = itemService.getItemsWithBookings(user.getId(), 0, 10);
+
+        assertEquals(List.of("Отзыв 11", "Отзыв 10", "Отзыв 9", "Отзыв 8", "Отзыв 7"),
+                firstPage.stream().map(CommentDto::getText).toList());
+        assertEquals(List.of("Отзыв 6", "Отзыв 5", "Отзыв 4", "Отзыв 3", "Отзыв 2"),
+                secondPage.stream().map(CommentDto::getText).toList());
+        assertEquals(List.of("Отзыв 1", "Отзыв 0"), lastPage.stream().map(CommentDto::getText).toList());
+        assertEquals(12L, owned.getFirst().getCommentCount());
+        assertEquals(10, owned.getFirst().getComments().size());
+        assertEquals("Отзыв 11", owned.getFirst().getComments().getFirst().getText());
+        assertEquals("Author", owned.getFirst().getComments().getFirst().getAuthorName());
+        assertThrows(NotFoundException.class, () -> itemService.getComments(999L, null, null, 5));
+    }
+
+    @Test
+    void testAddComment_RequireCompletedApprovedBooking() {
+        User booker = userRepository.save(new User(null, "Booker", "booker@email.com"));
+        Item item = itemRepository.findById(itemService.createItem(user.getId(),
+                new ItemSaveDto("Дрель", "Ударная", true, null)).getId()).orElseThrow();
+        LocalDateTime now = LocalDateTime.now();
+        bookingRepository.save(new Booking(null, now.minusDays(3), now.minusDays(2), item, booker,
+                BookingStatus.REJECTED));
+
+        assertThrows(ValidationException.class, () ->
+                itemService.addComment(booker.getId(), item.getId(), new CommentSaveDto("Отлично")));
+        assertThrows(NotFoundException.class, () ->
+                itemService.addComment(999L, item.getId(), new CommentSaveDto("Отлично")));
+
+        bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                BookingStatus.APPROVED));
+        CommentDto comment = itemService.addComment(booker.getId(), item.getId(), new CommentSaveDto("Отлично"));
+
+        assertNotNull(comment.getId());
+        assertEquals("Booker", comment.getAuthorName());
+        assertEquals(List.of("Отлично"), commentRepository.findLatestByItemId(item.getId(), 10).stream()
+                .map(CommentView::getText).toList());
+    }
 }
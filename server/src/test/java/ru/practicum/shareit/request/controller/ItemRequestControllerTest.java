@@ -1,6 +1,7 @@
 package ru.practicum.shareit.request.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,14 +9,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestAnswerDto;
 import ru.practicum.shareit.request.dto.ItemRequestSaveDto;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestNotifier;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -24,6 +37,7 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemRequestController.class)
@@ -32,11 +46,20 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class ItemRequestControllerTest {
     private final MockMvc mockMvc;
     private final ObjectMapper objectMapper;
+    private final ItemRequestNotifier notifier;
     private static final String HEADER_USER_ID = "X-Sharer-User-Id";
     @MockBean
     private final ItemRequestService service;
     private ItemRequestDto itemRequestExpected;
 
+    @TestConfiguration
+    static class NotifierConfig {
+        @Bean
+        ItemRequestNotifier itemRequestNotifier() {
+            return new ItemRequestNotifier(new SimpleMeterRegistry(), Duration.ofMinutes(1), Runnable::run);
+        }
+    }
+
     @BeforeEach
     public void testInit() {
         itemRequestExpected = new ItemRequestDto();
@@ -107,7 +130,7 @@ class ItemRequestControllerTest {
         Long userId = 10L;
         String path = "/requests/all";
 
-        when(service.getAllItemRequests(userId))
+        when(service.getAllItemRequests(userId, 0, 10))
                 .thenReturn(List.of());
 
         mockMvc.perform(get(path)
@@ -116,6 +139,29 @@ class ItemRequestControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().json("[]"));
 
-        verify(service, times(1)).getAllItemRequests(userId);
+        verify(service, times(1)).getAllItemRequests(userId, 0, 10);
+    }
+
+    @Test
+    void testSubscribe_ReceiveAnswerToOwnRequest() throws Exception {
+        User requester = new User(10L, "Requester", "requester@email.com");
+        User owner = new User(20L, "Owner", "owner@email.com");
+        ItemRequest ownRequest = new ItemRequest(1L, "Нужна дрель", requester, LocalDateTime.now());
+        ItemRequest otherRequest = new ItemRequest(2L, "Нужна лестница", owner, LocalDateTime.now());
+
+        MvcResult result = mockMvc.perform(get("/requests/subscribe")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header(HEADER_USER_ID, requester.getId()))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        notifier.itemAnswered(otherRequest, new Item(4L, "Лестница", "Стремянка", true, requester, otherRequest));
+        notifier.itemAnswered(ownRequest, new Item(3L, "Дрель", "Ударная дрель", true, owner, ownRequest));
+
+        String body = result.getResponse().getContentAsString();
+        String data = objectMapper.writeValueAsString(new ItemRequestAnswerDto(1L, 3L, "Дрель", 20L));
+        assertEquals("event:item\nid:3\ndata:" + data + "\n\n", body);
+        assertTrue(result.getResponse().getContentType().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
     }
 }
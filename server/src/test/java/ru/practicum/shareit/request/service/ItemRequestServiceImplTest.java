@@ -64,7 +64,9 @@ class ItemRequestServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(user.getId(), result.get(0).getRequester().getId());
+        assertTrue(result.get(0).getItems().isEmpty());
         Mockito.verify(itemRequestRepository, Mockito.times(1)).findAllByRequesterIdOrderByCreatedDesc(user.getId());
+        Mockito.verify(itemRepository).findAllByRequestIdIn(List.of(itemRequest.getId()));
     }
 
     @Test
@@ -72,15 +74,27 @@ class ItemRequestServiceImplTest {
         itemRequest.setRequester(user2);
         List<ItemRequest> itemRequests = List.of(itemRequest);
 
-        Mockito.when(itemRequestRepository.findAllByRequester_IdNotInOrderByCreatedDesc(List.of(user.getId())))
+        Item item = Item.builder()
+                .id(1L)
+                .name("Item1")
+                .owner(user)
+                .request(itemRequest)
+                .build();
+
+        Mockito.when(itemRequestRepository.findPageByRequesterIdNot(user.getId(), 0, 10))
                 .thenReturn(itemRequests);
+        Mockito.when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId())))
+                .thenReturn(List.of(item));
 
-        List<ItemRequestDto> result = itemRequestService.getAllItemRequests(user.getId());
+        List<ItemRequestDto> result = itemRequestService.getAllItemRequests(user.getId(), 0, 10);
 
         assertNotNull(result);
         assertEquals(1, result.size());
         assertNotEquals(user.getId(), result.get(0).getRequester().getId());
-        Mockito.verify(itemRequestRepository).findAllByRequester_IdNotInOrderByCreatedDesc(List.of(user.getId()));
+        assertEquals(1, result.get(0).getItems().size());
+        assertEquals(user.getId(), result.get(0).getItems().get(0).getOwnerId());
+        Mockito.verify(itemRequestRepository).findPageByRequesterIdNot(user.getId(), 0, 10);
+        Mockito.verify(itemRepository).findAllByRequestIdIn(List.of(itemRequest.getId()));
     }
 
 
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.request.service;
 
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestSaveDto;
@@ -13,6 +17,10 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -29,6 +37,9 @@ class ItemRequestServiceTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
         itemRequestService = new ItemRequestServiceImpl(userRepository, itemRepository, itemRequestRepository);
@@ -66,4 +77,74 @@ class ItemRequestServiceTest {
 
         assertEquals("Пользователь с id = 999 не найден", exception.getMessage());
     }
+
+    @Test
+    void testGetAllItemRequests_PageWithItems() {
+        User requester = userRepository.save(new User(null, "Requester", "requester@email.com"));
+        User owner = userRepository.save(new User(null, "Owner", "owner@email.com"));
+        LocalDateTime created = LocalDateTime.now().plusYears(1);
+        ItemRequest first = itemRequestRepository.save(new ItemRequest(null, "Нужна дрель", requester, created));
+        ItemRequest second = itemRequestRepository.save(new ItemRequest(null, "Нужна лестница", requester,
+                created.plusDays(1)));
+        ItemRequest own = itemRequestRepository.save(new ItemRequest(null, "Нужен молоток", owner,
+                created.plusDays(2)));
+        itemRepository.save(new Item(null, "Дрель", "Ударная дрель", true, owner, first));
+        itemRepository.save(new Item(null, "Дрель 2", "Аккумуляторная дрель", true, owner, first));
+
+        List<ItemRequestDto> firstPage = itemRequestService.getAllItemRequests(owner.getId(), 0, 1);
+        List<ItemRequestDto> secondPage = itemRequestService.getAllItemRequests(owner.getId(), 1, 1);
+
+        assertEquals(1, firstPage.size());
+        assertEquals(second.getId(), firstPage.getFirst().getId());
+        assertTrue(firstPage.getFirst().getItems().isEmpty());
+        assertEquals(1, secondPage.size());
+        assertEquals(first.getId(), secondPage.getFirst().getId());
+        assertEquals(2, secondPage.getFirst().getItems().size());
+        assertEquals(owner.getId(), secondPage.getFirst().getItems().getFirst().getOwnerId());
+        assertNotEquals(own.getId(), firstPage.getFirst().getId());
+    }
+
+    @Test
+    void testGetAllUserItemRequestsWithItems_UseConstantStatementCount_whenRequestsGrow() {
+        User requester = userRepository.save(new User(null, "Requester", "requester@email.com"));
+
+        saveRequestsWithResponses(requester, 1, 1);
+        long statementsForOne = countStatements(() ->
+                assertEquals(1, itemRequestService.getAllUserItemRequestsWithItems(requester.getId()).size()));
+
+        saveRequestsWithResponses(requester, 10, 3);
+        AtomicReference<List<ItemRequestDto>> requests = new AtomicReference<>();
+        long statementsForMany = countStatements(() ->
+                requests.set(itemRequestService.getAllUserItemRequestsWithItems(requester.getId())));
+
+        assertEquals(2, statementsForOne);
+        assertEquals(statementsForOne, statementsForMany);
+        assertEquals(11, requests.get().size());
+        assertEquals(31, requests.get().stream().mapToInt(request -> request.getItems().size()).sum());
+        assertTrue(requests.get().stream().allMatch(request -> request.getRequester().getId().equals(requester.getId())));
+    }
+
+    private void saveRequestsWithResponses(User requester, int requests, int responsesPerRequest) {
+        for (int i = 0; i < requests; i++) {
+            ItemRequest request = itemRequestRepository.save(new ItemRequest(null, "Запрос " + i, requester,
+                    LocalDateTime.now()));
+            for (int j = 0; j < responsesPerRequest; j++) {
+                User owner = userRepository.save(new User(null, "Owner", "owner" + i + "_" + j + "_"
+                        + System.nanoTime() + "@email.com"));
+                itemRepository.save(new Item(null, "Вещь " + j, "Описание", true, owner, request));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long countStatements(Runnable action) {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        action.run();
+        entityManager.clear();
+        return statistics.getPrepareStatementCount();
+    }
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.user.service;
 
 import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.service.CommentEligibilityMemo;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserSaveDto;
 import ru.practicum.shareit.user.model.User;
@@ -25,6 +26,9 @@ public class UserServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
+
+    @Mock
+    private CommentEligibilityMemo commentEligibilityMemo;
     private final User user1 = new User(1L, "User1", "user1@email.com");
     private final UserDto userDto1 = new UserDto(1L, "User1", "user1@email.com");
     private final UserSaveDto userSaveDto1 = new UserSaveDto("User1", "user1@email.com");
@@ -114,5 +118,6 @@ public class UserServiceImplTest {
         userService.deleteUser(1L);
 
         Mockito.verify(userRepository).deleteById(1L);
+        Mockito.verify(commentEligibilityMemo).userDeleted(1L);
     }
 }
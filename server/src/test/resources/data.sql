@@ -30,8 +30,15 @@ VALUES (10, TIMESTAMP '2025-01-20 10:10:10', TIMESTAMP '2025-01-20 11:11:11', 10
        (70, TIMESTAMP '2025-01-20 10:10:10', TIMESTAMP '2025-01-20 11:11:11', 10, 20, 'WAITING');
 
 INSERT INTO comments (id, text, item_id, author_id, created)
-VALUES (10, 'comment1', 10, 20, null),
-       (20, 'comment1', 10, 10, null),
-       (30, 'comment3', 10, 30, null),
-       (40, 'comment4', 40, 50, null),
-       (50, 'comment5', 50, 40, null);
\ No newline at end of file
+VALUES (10, 'comment1', 10, 20, TIMESTAMP '2025-01-21 10:10:10'),
+       (20, 'comment1', 10, 10, TIMESTAMP '2025-01-21 11:11:11'),
+       (30, 'comment3', 10, 30, TIMESTAMP '2025-01-21 12:12:12'),
+       (40, 'comment4', 40, 50, TIMESTAMP '2025-01-21 13:13:13'),
+       (50, 'comment5', 50, 40, TIMESTAMP '2025-01-21 14:14:14');
+ALTER TABLE users ALTER COLUMN id RESTART WITH 1000;
+ALTER TABLE requests ALTER COLUMN id RESTART WITH 1000;
+ALTER TABLE items ALTER COLUMN id RESTART WITH 1000;
+ALTER TABLE bookings ALTER COLUMN id RESTART WITH 1000;
+ALTER TABLE comments ALTER COLUMN id RESTART WITH 1000;
+ALTER SEQUENCE booking_seq RESTART WITH 1000;
+ALTER SEQUENCE comment_seq RESTART WITH 1000;